@@ -0,0 +1,7 @@
+-- Idempotency key for quiz results written by birdquiz.ResultWriter.
+-- Results are journaled on the kiosk and may be written more than once after an
+-- outage; a row whose result_uuid already exists is ignored. Score rows use the
+-- result's UUID, summary rows the UUID followed by "/summary".
+ALTER TABLE `quiz_results`
+  ADD COLUMN `result_uuid` varchar(48) DEFAULT NULL,
+  ADD UNIQUE KEY `uq_quiz_results_result_uuid` (`result_uuid`);
@@ -21,6 +21,41 @@ int lastButtonState[numButtons];
 int buttonState[numButtons];
 const unsigned long debounceDelay = 50;
 
+// Serial protocol v2 (see SerialProtocol.java): the host sends the line "proto2" on
+// connect; we answer with a HELLO frame and switch to binary frames
+// SYNC, type, seq, len, payload, CRC-8 (poly 0x07 over type..payload).
+// Until then, and after a reset, the ASCII words are used.
+const uint8_t FRAME_SYNC = 0xB7;
+const uint8_t TYPE_HELLO = 0x01;
+const uint8_t TYPE_ACK = 0x02;
+const uint8_t TYPE_BUTTON = 0x20;
+const uint8_t TYPE_FEEDBACK = 0x30;
+const uint8_t PROTOCOL_VERSION = 2;
+const uint8_t MAX_PAYLOAD = 16;
+// Host command codes, in buttonNames order (SerialFramer: blue 0, green 1, yellow 2, submit 3)
+const uint8_t buttonCodes[] = {2, 0, 1, 3};
+const unsigned long resendDelay = 150;
+const int maxResends = 3;
+
+bool protoV2 = false;
+uint8_t txSeq = 0;
+// BUTTON frames have their own numbering, so the host can count lost presses from its gaps
+uint8_t buttonSeq = 0;
+
+// Last button frame, kept until the host acks it
+uint8_t pendingFrame[MAX_PAYLOAD + 5];
+uint8_t pendingLength = 0;
+uint8_t pendingSeq = 0;
+unsigned long pendingSentAt = 0;
+int pendingResends = 0;
+
+// Receive state: ASCII line or binary frame
+char lineBuffer[32];
+int lineLength = 0;
+uint8_t rxFrame[MAX_PAYLOAD + 4];
+int rxState = 0; // 0 idle, 1 type, 2 seq, 3 len, 4 payload, 5 crc
+int rxReceived = 0;
+
 void initializeOLED() {
   // Initialize the OLED display
   if (!display.begin(SSD1306_SWITCHCAPVCC, OLED_ADDR)) {
@@ -75,6 +110,65 @@ void setup() {
 void loop() {
   handleButtons();    // Check button states and update the OLED accordingly
   handleSerialInput(); // Check for serial input and update the OLED accordingly
+  resendPendingButton();
+}
+
+uint8_t crc8(const uint8_t* data, int length) {
+  uint8_t crc = 0;
+  for (int i = 0; i < length; i++) {
+    crc ^= data[i];
+    for (int bit = 0; bit < 8; bit++) {
+      crc = (crc & 0x80) ? (uint8_t)((crc << 1) ^ 0x07) : (uint8_t)(crc << 1);
+    }
+  }
+  return crc;
+}
+
+// Builds a frame into out and returns its length
+int buildFrame(uint8_t* out, uint8_t type, uint8_t seq, const uint8_t* payload, uint8_t length) {
+  out[0] = FRAME_SYNC;
+  out[1] = type;
+  out[2] = seq;
+  out[3] = length;
+  memcpy(out + 4, payload, length);
+  out[4 + length] = crc8(out + 1, 3 + length);
+  return 5 + length;
+}
+
+void sendFrame(uint8_t type, const uint8_t* payload, uint8_t length) {
+  uint8_t frame[MAX_PAYLOAD + 5];
+  int size = buildFrame(frame, type, txSeq++, payload, length);
+  Serial.write(frame, size);
+}
+
+void sendButton(int i) {
+  if (!protoV2) {
+    Serial.print(F("Button pressed: "));
+    Serial.println(buttonNames[i]); // Print button name to Serial Monitor
+
+    // Send the button name to the Serial Port for Java application
+    Serial.println(buttonNames[i]);
+    return;
+  }
+  // One frame per press: button code and our millis, resent until acked
+  unsigned long now = millis();
+  uint8_t payload[5] = {buttonCodes[i], (uint8_t)(now >> 24), (uint8_t)(now >> 16), (uint8_t)(now >> 8), (uint8_t)now};
+  pendingSeq = buttonSeq++;
+  pendingLength = buildFrame(pendingFrame, TYPE_BUTTON, pendingSeq, payload, sizeof(payload));
+  pendingSentAt = now;
+  pendingResends = 0;
+  Serial.write(pendingFrame, pendingLength);
+}
+
+void resendPendingButton() {
+  if (pendingLength == 0 || millis() - pendingSentAt < resendDelay) return;
+  if (pendingResends >= maxResends) {
+    pendingLength = 0; // The host will see the gap in sequence numbers
+    return;
+  }
+  pendingResends++;
+  pendingSentAt = millis();
+  Serial.write(pendingFrame, pendingLength);
 }
 
 void handleButtons() {
@@ -90,11 +184,7 @@ void handleButtons() {
         buttonState[i] = reading;
 
         if (buttonState[i] == LOW) {
-          Serial.print(F("Button pressed: "));
-          Serial.println(buttonNames[i]); // Print button name to Serial Monitor
-
-          // Send the button name to the Serial Port for Java application
-          Serial.println(buttonNames[i]);
+          sendButton(i);
 
           // Light up the corresponding LED to full brightness
           analogWrite(ledPins[i], 255); // Full brightness
@@ -103,8 +193,10 @@ void handleButtons() {
           updateOLED("Button Pressed", buttonNames[i]);
 
         } else {
-          Serial.print(F("Button released: "));
-          Serial.println(buttonNames[i]);
+          if (!protoV2) {
+            Serial.print(F("Button released: "));
+            Serial.println(buttonNames[i]);
+          }
 
           // Dim the corresponding LED back to half brightness
           analogWrite(ledPins[i], 128); // Half brightness (dim state)
@@ -117,16 +209,70 @@ void handleButtons() {
 }
 
 void handleSerialInput() {
-  if (Serial.available()) {
-    String input = Serial.readStringUntil('\n');
-    input.trim();
+  while (Serial.available()) {
+    uint8_t b = Serial.read();
+    if (rxState == 0) {
+      if (b == FRAME_SYNC) {
+        rxState = 1;
+      } else if (b == '\n') {
+        lineBuffer[lineLength] = '\0';
+        handleLine(lineBuffer);
+        lineLength = 0;
+      } else if (b != '\r' && lineLength < (int)sizeof(lineBuffer) - 1) {
+        lineBuffer[lineLength++] = (char)b;
+      }
+      continue;
+    }
+    if (rxState < 4) {
+      rxFrame[rxState - 1] = b; // type, seq, len
+      rxState++;
+      rxReceived = 0;
+      if (rxState == 4) {
+        if (rxFrame[2] > MAX_PAYLOAD) rxState = 0;
+        else if (rxFrame[2] == 0) rxState = 5;
+      }
+    } else if (rxState == 4) {
+      rxFrame[3 + rxReceived++] = b;
+      if (rxReceived == rxFrame[2]) rxState = 5;
+    } else {
+      if (crc8(rxFrame, 3 + rxFrame[2]) == b) {
+        handleFrame(rxFrame[0], rxFrame[1], rxFrame + 3, rxFrame[2]);
+      }
+      rxState = 0;
+    }
+  }
+}
 
+void handleLine(const char* input) {
+  if (strcmp(input, "proto2") == 0) {
+    protoV2 = true;
+    uint8_t version = PROTOCOL_VERSION;
+    sendFrame(TYPE_HELLO, &version, 1);
+    return;
+  }
+
+  if (!protoV2) {
     Serial.print("Received: ");
     Serial.println(input);
+  }
 
-    if (input.equals("correct")) {
+  if (strcmp(input, "correct") == 0) {
+    updateOLEDWithAnswer("Correct Answer");
+  } else if (strcmp(input, "wrong") == 0) {
+    updateOLEDWithAnswer("Wrong Answer");
+  }
+}
+
+void handleFrame(uint8_t type, uint8_t seq, const uint8_t* payload, uint8_t length) {
+  if (type == TYPE_ACK) {
+    if (length > 0 && pendingLength > 0 && payload[0] == pendingSeq) {
+      pendingLength = 0;
+    }
+  } else if (type == TYPE_FEEDBACK) {
+    sendFrame(TYPE_ACK, &seq, 1);
+    if (length > 0 && payload[0] == 0) {
       updateOLEDWithAnswer("Correct Answer");
-    } else if (input.equals("wrong")) {
+    } else if (length > 0 && payload[0] == 1) {
       updateOLEDWithAnswer("Wrong Answer");
     }
   }
@@ -134,8 +280,10 @@ void handleSerialInput() {
 
 void updateOLEDWithAnswer(const char* answer) {
   updateOLED(answer, "");
-  Serial.print(F("Updated OLED with answer: "));
-  Serial.println(answer);
+  if (!protoV2) {
+    Serial.print(F("Updated OLED with answer: "));
+    Serial.println(answer);
+  }
 }
 
 void updateOLED(const char* mainMessage, const char* subMessage) {
@@ -159,6 +307,8 @@ void updateOLED(const char* mainMessage, const char* subMessage) {
   }
 
   display.display();
-  Serial.print(F("Updated OLED with message: "));
-  Serial.println(mainMessage);
+  if (!protoV2) {
+    Serial.print(F("Updated OLED with message: "));
+    Serial.println(mainMessage);
+  }
 }
\ No newline at end of file
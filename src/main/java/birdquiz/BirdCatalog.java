@@ -0,0 +1,239 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Every category table held in memory, so starting or restarting a quiz does not query
+ * the {@link CatalogRepository} (MySQL unless -Dbirdquiz.repository says otherwise).
+ *
+ * Each load produces a new immutable snapshot of all tables, which replaces the old one
+ * in a single reference swap; readers always see a complete catalog and never wait for
+ * a refresh. Tables are loaded at startup and refreshed every
+ * -Dbirdquiz.catalog.refreshMin minutes (default 60, 0 for never) or on demand. If a
+ * refresh fails the previous snapshot stays in use.
+ *
+ * Every successful refresh is also written to a {@link CatalogSnapshot} on disk. At
+ * start that file is mapped and installed before the first refresh runs, so after the
+ * first boot quizzes are playable before the database has answered; the refresh then
+ * reconciles the tables with the repository in the background. Tables loaded from
+ * MySQL are also saved for the file backend ({@link Repositories#offlineCatalog}).
+ */
+public class BirdCatalog {
+    public static final java.util.List<String> TABLES =
+            Collections.unmodifiableList(Arrays.asList("songbirds", "ducks", "raptors", "shore_birds"));
+
+    private static final long DEFAULT_REFRESH_MIN = 60;
+
+    private static BirdCatalog instance;
+
+    private final AtomicReference<Map<String, java.util.List<BirdQuizGUI.Bird>>> snapshot =
+            new AtomicReference<>(Collections.emptyMap());
+    private final CatalogRepository repository;
+    private final Metrics metrics = Metrics.getInstance();
+    private final Map<String, QuestionGenerator> generators = new ConcurrentHashMap<>();
+    // Tables not in the snapshot that are being loaded on their own
+    private final Map<String, CompletableFuture<java.util.List<BirdQuizGUI.Bird>>> loading = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "catalog-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean started = false;
+
+    private BirdCatalog(CatalogRepository repository) {
+        this.repository = repository;
+    }
+
+    public static synchronized BirdCatalog getInstance() {
+        if (instance == null) {
+            instance = new BirdCatalog(Repositories.catalog());
+        }
+        return instance;
+    }
+
+    /** Loads every table in the background and schedules refreshes. Safe to call more than once. */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+        loadSnapshot();
+        long minutes = Long.getLong("birdquiz.catalog.refreshMin", DEFAULT_REFRESH_MIN);
+        if (minutes > 0) {
+            refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, minutes, TimeUnit.MINUTES);
+        } else {
+            refresher.execute(this::refreshQuietly);
+        }
+    }
+
+    /** Reloads every table in the background; the returned future completes when the new snapshot is live. */
+    public CompletableFuture<Void> refresh() {
+        return CompletableFuture.runAsync(this::refreshQuietly, refresher);
+    }
+
+    /**
+     * Birds of the table from the current snapshot. A table that has not been loaded yet
+     * reads as empty and is loaded in the background; callers that need it wait on
+     * {@link #load} instead.
+     */
+    public java.util.List<BirdQuizGUI.Bird> birds(String table) {
+        java.util.List<BirdQuizGUI.Bird> birds = snapshot.get().get(table);
+        if (birds != null) {
+            return birds;
+        }
+        load(table);
+        return Collections.emptyList();
+    }
+
+    /**
+     * Completes with the table's birds once it is in the snapshot, at once if it already
+     * is. The repository is read on the refresh thread, never on the caller's; the result
+     * is empty if the table cannot be loaded.
+     */
+    public CompletableFuture<java.util.List<BirdQuizGUI.Bird>> load(String table) {
+        java.util.List<BirdQuizGUI.Bird> birds = snapshot.get().get(table);
+        if (birds != null) {
+            return CompletableFuture.completedFuture(birds);
+        }
+        // Registered before the load starts, so a load that finishes at once can remove its own entry
+        CompletableFuture<java.util.List<BirdQuizGUI.Bird>> future = new CompletableFuture<>();
+        CompletableFuture<java.util.List<BirdQuizGUI.Bird>> existing = loading.putIfAbsent(table, future);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    java.util.List<BirdQuizGUI.Bird> loaded = loadMissing(table);
+                    loading.remove(table, future);
+                    future.complete(loaded);
+                } catch (RuntimeException e) {
+                    loading.remove(table, future);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(table, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /** Question generator for the table's current snapshot, rebuilt after the snapshot changes. */
+    public QuestionGenerator questions(String table) {
+        java.util.List<BirdQuizGUI.Bird> birds = birds(table);
+        QuestionGenerator generator = generators.get(table);
+        if (generator == null || generator.getBirds() != birds) {
+            generator = new QuestionGenerator(birds);
+            generators.put(table, generator);
+        }
+        return generator;
+    }
+
+    public boolean isLoaded(String table) {
+        return snapshot.get().containsKey(table);
+    }
+
+    private void refreshQuietly() {
+        long start = System.nanoTime();
+        Map<String, java.util.List<BirdQuizGUI.Bird>> loaded = new HashMap<>();
+        Set<String> tables = new LinkedHashSet<>(TABLES);
+        tables.addAll(snapshot.get().keySet());
+        for (String table : tables) {
+            try {
+                loaded.put(table, loadTable(table));
+            } catch (RepositoryException e) {
+                System.err.println("[CATALOG] Keeping previous " + table + ": " + e.getMessage());
+            }
+        }
+        if (loaded.isEmpty()) return;
+        install(loaded);
+        reportMissingImages(loaded);
+        saveSnapshot();
+        saveOfflineCopy(loaded);
+
+        int birds = 0;
+        for (java.util.List<BirdQuizGUI.Bird> list : loaded.values()) birds += list.size();
+        System.out.println("[CATALOG] Loaded " + loaded.size() + " tables, " + birds + " birds in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private void loadSnapshot() {
+        long start = System.nanoTime();
+        Map<String, java.util.List<BirdQuizGUI.Bird>> tables = CatalogSnapshot.read(CatalogSnapshot.defaultPath(), source());
+        if (tables == null || tables.isEmpty()) return;
+        install(tables);
+        metrics.recordSince("catalog.snapshot.load", start);
+        System.out.println("[CATALOG] Mapped snapshot of " + tables.size() + " tables in "
+                + (System.nanoTime() - start) / 1000 + " us, reconciling in the background");
+        // Probing every image is too slow for the caller's thread, which may be the EDT
+        refresher.execute(() -> reportMissingImages(tables));
+    }
+
+    // Refresh thread only
+    private java.util.List<BirdQuizGUI.Bird> loadMissing(String table) {
+        java.util.List<BirdQuizGUI.Bird> birds = snapshot.get().get(table);
+        if (birds != null) {
+            return birds;
+        }
+        try {
+            birds = loadTable(table);
+        } catch (RepositoryException e) {
+            System.err.println("[CATALOG] Cannot load " + table + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+        Map<String, java.util.List<BirdQuizGUI.Bird>> loaded = Collections.singletonMap(table, birds);
+        install(loaded);
+        reportMissingImages(loaded);
+        return birds;
+    }
+
+    private void reportMissingImages(Map<String, java.util.List<BirdQuizGUI.Bird>> tables) {
+        for (Map.Entry<String, java.util.List<BirdQuizGUI.Bird>> table : tables.entrySet()) {
+            java.util.List<String> imageLocations = new ArrayList<>(table.getValue().size());
+            for (BirdQuizGUI.Bird bird : table.getValue()) {
+                imageLocations.add(bird.getImageLocation());
+            }
+            ImageIndex.getInstance().reportMissing(table.getKey(), imageLocations);
+        }
+    }
+
+    private void saveSnapshot() {
+        try {
+            CatalogSnapshot.write(CatalogSnapshot.defaultPath(), source(), new TreeMap<>(snapshot.get()));
+        } catch (IOException e) {
+            System.err.println("[CATALOG] Cannot write snapshot: " + e.getMessage());
+        }
+    }
+
+    private void saveOfflineCopy(Map<String, java.util.List<BirdQuizGUI.Bird>> tables) {
+        if (!(repository instanceof MySqlCatalogRepository)) return;
+        FileCatalogRepository offline = Repositories.offlineCatalog();
+        for (Map.Entry<String, java.util.List<BirdQuizGUI.Bird>> table : tables.entrySet()) {
+            try {
+                offline.save(table.getKey(), table.getValue());
+            } catch (IOException e) {
+                System.err.println("[CATALOG] Cannot save offline copy of " + table.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private String source() {
+        return repository.getClass().getName();
+    }
+
+    // Copy-on-write: tables not in 'tables' keep their current snapshot
+    private void install(Map<String, java.util.List<BirdQuizGUI.Bird>> tables) {
+        snapshot.updateAndGet(current -> {
+            Map<String, java.util.List<BirdQuizGUI.Bird>> next = new HashMap<>(current);
+            next.putAll(tables);
+            return Collections.unmodifiableMap(next);
+        });
+    }
+
+    private java.util.List<BirdQuizGUI.Bird> loadTable(String table) throws RepositoryException {
+        java.util.List<BirdQuizGUI.Bird> birds = repository.loadTable(table);
+        return Collections.unmodifiableList(new ArrayList<>(birds));
+    }
+}
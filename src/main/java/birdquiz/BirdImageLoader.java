@@ -0,0 +1,76 @@
+package birdquiz;
+
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Turns a male_image_location value into a display-ready icon: checks the shared
+ * {@link ImageCache}, then decodes from the {@link CompressedImageStore} if bytes
+ * encoded for the same box are held there, or resolves the file through
+ * {@link ImageIndex} otherwise. Decoding goes through {@link ImageDecoder} and scaling
+ * through {@link ImageScaler}.
+ *
+ * Thread-safe and Swing-free, so the quiz's prefetch thread and the category warm-up
+ * pool can both call it.
+ */
+public class BirdImageLoader {
+    static final double IMAGE_HEIGHT_PERCENT = 70.0;
+
+    private BirdImageLoader() {}
+
+    /** Scaled image fitting the box, or null if the file cannot be found or decoded. */
+    public static ImageIcon load(String imgLocation, int maxWidth, int maxHeight) {
+        ImageCache imageCache = ImageCache.getInstance();
+        String cacheKey = ImageCache.key(imgLocation, maxWidth, maxHeight);
+        ImageIcon cached = imageCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Decode only as many pixels as the display box needs
+        BufferedImage image;
+        try {
+            ByteBuffer encoded = CompressedImageStore.getInstance().get(imgLocation, maxWidth, maxHeight);
+            if (encoded != null) {
+                image = ImageDecoder.decode(new ContentPack.ByteBufferImageInputStream(encoded), imgLocation, null, maxWidth, maxHeight);
+            } else {
+                // Closest build-time rendition, or the camera original if there is none
+                String imagePath = ImageIndex.getInstance().resolve(imgLocation, maxWidth, maxHeight);
+                if (imagePath == null) {
+                    return null;
+                }
+                image = ImageDecoder.decode(imagePath, maxWidth, maxHeight);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        double aspectRatio = (double) image.getWidth() / image.getHeight();
+        int width = maxWidth;
+        int height = (int) (width / aspectRatio);
+        if (height > maxHeight) {
+            height = maxHeight;
+            width = (int) (height * aspectRatio);
+        }
+
+        ImageIcon scaled = new ImageIcon(ImageScaler.scale(image, width, height));
+        imageCache.put(cacheKey, scaled);
+        return scaled;
+    }
+
+    /** Box the bird photo has to fit into inside a quiz frame of the given size. */
+    public static Dimension boxFor(int frameWidth, int frameHeight) {
+        return new Dimension(frameWidth, (int) (frameHeight * IMAGE_HEIGHT_PERCENT / 100.0));
+    }
+
+    /** Box for a full-screen quiz frame, used before the frame exists or is shown. */
+    public static Dimension screenBox() {
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration().getBounds();
+        return boxFor(screen.width, screen.height);
+    }
+}
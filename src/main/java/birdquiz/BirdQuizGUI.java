@@ -3,22 +3,15 @@ package birdquiz;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
 import java.io.*;
 import java.sql.*;
 import java.util.*;
-import javax.imageio.ImageIO;
-import com.fazecast.jSerialComm.*;
 
 public class BirdQuizGUI extends JFrame implements ActionListener {
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/birds_db";
-    private static final String DB_USERNAME = "root";
-    private static final String DB_PASSWORD = "Neskowin71";
     private static final int MAX_QUESTIONS = 5;
     private static final Font RADIO_BUTTON_FONT = new Font("Arial", Font.PLAIN, 16);
     private static final Font BOTTOM_BUTTON_FONT = new Font("Arial", Font.BOLD, 30);
 
-    private Connection connection;
     private java.util.List<Question> questions;
     private int currentQuestionIndex = 0;
     private int score = 0;
@@ -35,8 +28,13 @@ public class BirdQuizGUI extends JFrame implements ActionListener {
     private ImageIcon[] selectedResizedImages = new ImageIcon[imageNames.length];
     private ImageIcon submitIcon, whiteIcon;
     private static final double OPTIONS_PANEL_PERCENT = 70.0;
+    private static final int PREFETCH_AHEAD = 2;
+    private static final int RESIZE_SETTLE_MS = 200;
 
-    private Map<String, ImageIcon> imageCache = new HashMap<>();
+    private final ImagePrefetcher imagePrefetcher = new ImagePrefetcher(BirdImageLoader::load);
+    private javax.swing.Timer resizeTimer;
+    // Box every photo is prefetched and shown at; assumes the full screen until a resize settles
+    private Dimension imageBox = BirdImageLoader.screenBox();
     private String tableName;
 
     private QuizScoreProcessor quizScoreProcessor;
@@ -46,17 +44,25 @@ public class BirdQuizGUI extends JFrame implements ActionListener {
     private long lastSubmitTime = 0;
     private static final long SUBMIT_COOLDOWN = 1000;
 
-    private SerialPort serialPort;
-    private StringBuffer serialBuffer = new StringBuffer();
+    private final SerialSession.Subscriber serialSubscriber = new SerialSession.Subscriber() {
+        @Override
+        public void onCommand(int command) {
+            handleSerialCommand(command, null);
+        }
+
+        @Override
+        public void onCommand(int command, LatencyTracer.Trace trace) {
+            handleSerialCommand(command, trace);
+        }
+    };
 
-    public BirdQuizGUI(String tableName, String serialPortName, String firstName, String email) {
+    public BirdQuizGUI(String tableName, String firstName, String email) {
         this.tableName = tableName;
         this.firstName = firstName;
         this.email = email;
 
         quizScoreProcessor = new QuizScoreProcessor();
 
-        initializeDatabaseConnection();
         initializeQuestionsAndImages();
         setupUI();
 
@@ -66,24 +72,13 @@ public class BirdQuizGUI extends JFrame implements ActionListener {
         setVisible(true);
 
         nextQuestion();
-        setupSerial(serialPortName);
+        // The port is already open; this window takes button presses until it is disposed
+        SerialSession.getInstance().subscribe(serialSubscriber);
         addComponentListenerToOptionsPanel();
     }
 
-    public BirdQuizGUI(String tableName, String serialPortName) {
-        this(tableName, serialPortName, "", "");
-    }
-
-    private void initializeDatabaseConnection() {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            System.out.println("Database driver loaded");
-            connection = DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
-            System.out.println("Database connection established");
-        } catch (ClassNotFoundException | SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    public BirdQuizGUI(String tableName) {
+        this(tableName, "", "");
     }
 
     private void initializeQuestionsAndImages() {
@@ -92,6 +87,7 @@ public class BirdQuizGUI extends JFrame implements ActionListener {
             if (questions.size() < MAX_QUESTIONS) {
                 throw new SQLException("Not enough questions available.");
             }
+            prefetchFrom(0);
             loadAndResizeImages();
         } catch (SQLException | IOException e) {
             e.printStackTrace();
@@ -99,52 +95,15 @@ public class BirdQuizGUI extends JFrame implements ActionListener {
         }
     }
 
-   private static InputStream resourceStreamOrThrow(String absolutePath) throws IOException {
-    InputStream in = BirdQuizGUI.class.getResourceAsStream(absolutePath);
-    if (in == null) {
-        throw new FileNotFoundException("Resource not found on classpath: " + absolutePath);
-    }
-    return in;
-}
-
-private static ImageIcon scaleIcon(BufferedImage src, int w, int h) {
-    BufferedImage scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-    Graphics2D g2 = scaled.createGraphics();
-    g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    g2.drawImage(src, 0, 0, w, h, null);
-    g2.dispose();
-    return new ImageIcon(scaled);
-}
-
 private void loadAndResizeImages() throws IOException {
-    final String base = "/buttons/"; // absolute, rooted at classpath
+    // Decoded once per JVM and shared with every other quiz window
     for (int i = 0; i < imageNames.length; i++) {
-        String normalPath = base + imageNames[i];
-        String selectedPath = base + selectedImageNames[i];
-
-        try (InputStream is = resourceStreamOrThrow(normalPath);
-             InputStream sis = resourceStreamOrThrow(selectedPath)) {
-
-            BufferedImage normal = ImageIO.read(is);
-            BufferedImage selected = ImageIO.read(sis);
-
-            resizedImages[i] = scaleIcon(normal, 50, 50);
-            selectedResizedImages[i] = scaleIcon(selected, 50, 50);
-        }
+        resizedImages[i] = ButtonIcons.icon(imageNames[i], 50);
+        selectedResizedImages[i] = ButtonIcons.icon(selectedImageNames[i], 50);
     }
 
-    String submitPath = base + "white.png";
-    String submitSelectedPath = base + "white_selected.png";
-    try (InputStream is = resourceStreamOrThrow(submitPath);
-         InputStream sis = resourceStreamOrThrow(submitSelectedPath)) {
-
-        BufferedImage normal = ImageIO.read(is);
-        BufferedImage selected = ImageIO.read(sis);
-
-        submitIcon = scaleIcon(normal, 50, 50);
-        whiteIcon = scaleIcon(selected, 50, 50);
-    }
+    submitIcon = ButtonIcons.icon("white.png", 50);
+    whiteIcon = ButtonIcons.icon("white_selected.png", 50);
 }
 
 
@@ -287,68 +246,6 @@ private void loadAndResizeImages() throws IOException {
         });
     }
 
-private void setupSerial(String portName) {
-    try {
-        // Debug: List all available ports
-        System.out.println("Scanning available serial ports...");
-        for (SerialPort port : SerialPort.getCommPorts()) {
-            System.out.println("Available port: " + port.getSystemPortName());
-        }
-
-        serialPort = SerialPort.getCommPort(portName);
-        if (serialPort.openPort()) {
-            serialPort.setBaudRate(115200);
-            serialPort.setNumDataBits(8);
-            serialPort.setNumStopBits(1);
-            serialPort.setParity(SerialPort.NO_PARITY);
-            serialPort.addDataListener(new SerialPortDataListener() {
-                private StringBuilder serialBuffer = new StringBuilder();
-                
-                @Override
-                public int getListeningEvents() {
-                    return SerialPort.LISTENING_EVENT_DATA_AVAILABLE;
-                }
-
-                @Override
-                public void serialEvent(SerialPortEvent event) {
-                    if (event.getEventType() == SerialPort.LISTENING_EVENT_DATA_AVAILABLE) {
-                        try {
-                            byte[] newData = new byte[serialPort.bytesAvailable()];
-                            serialPort.readBytes(newData, newData.length);
-                            String receivedData = new String(newData);
-
-                            serialBuffer.append(receivedData);
-
-                            int index;
-                            while ((index = serialBuffer.indexOf("\n")) != -1) {
-                                String completeCommand = serialBuffer.substring(0, index).trim();
-                                serialBuffer.delete(0, index + 1);
-
-                                // Debugging output
-                                System.out.println("Received Serial Data: " + completeCommand);
-                                handleSerialInput(completeCommand);
-                            }
-                        } catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
-                    }
-                }
-            });
-            System.out.println("Serial port initialized on " + portName);
-        } else {
-            throw new Exception("Failed to open the serial port.");
-        }
-    } catch (Exception ex) {
-        ex.printStackTrace();
-        JOptionPane.showMessageDialog(this, "Error initializing serial port: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-    }
-}
-
-
-
-
-
-
     private JPanel createBottomPanel() {
         JPanel bottomPanel = new JPanel(new GridBagLayout());
         GridBagConstraints gbcBottom = new GridBagConstraints();
@@ -404,10 +301,33 @@ private void setupSerial(String portName) {
                     optionsPanel.revalidate();
                     optionsPanel.repaint();
                 }
+                // Rescale the photo once the resize settles rather than on every intermediate size
+                if (resizeTimer == null) {
+                    resizeTimer = new javax.swing.Timer(RESIZE_SETTLE_MS, ev -> rescaleCurrentImage());
+                    resizeTimer.setRepeats(false);
+                }
+                resizeTimer.restart();
             }
         });
     }
 
+    private void rescaleCurrentImage() {
+        if (questions == null || currentQuestionIndex >= questions.size()) return;
+        if (getWidth() <= 0 || getHeight() <= 0) return;
+        Dimension box = BirdImageLoader.boxFor(getWidth(), getHeight());
+        if (box.equals(imageBox)) return;
+        imageBox = box;
+
+        // Reuses the cached derivative if this size was shown before
+        ImageIcon imageIcon = BirdImageLoader.load(questions.get(currentQuestionIndex).getImageLocation(), box.width, box.height);
+        if (imageIcon != null) {
+            imageLabel.setIcon(imageIcon);
+        }
+        // Anything queued was sized for the old box and would never be taken
+        imagePrefetcher.cancelAll();
+        prefetchFrom(currentQuestionIndex + 1);
+    }
+
     private void restartQuiz() {
         currentQuestionIndex = 0;
         score = 0;
@@ -419,6 +339,8 @@ private void setupSerial(String portName) {
                 throw new SQLException("Not enough questions available.");
             }
             Collections.shuffle(questions);
+            imagePrefetcher.cancelAll();
+            prefetchFrom(0);
         } catch (SQLException e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -433,113 +355,58 @@ private void setupSerial(String portName) {
     }
 
     private java.util.List<Question> fetchBirdQuestions() {
-        java.util.List<Question> questionsList = new ArrayList<>();
-        java.util.List<Bird> birds = new ArrayList<>();
-        String fetchAllSql = "SELECT name, male_image_location, category FROM " + tableName;
-    
-        try (PreparedStatement fetchAllStmt = connection.prepareStatement(fetchAllSql);
-             ResultSet rs = fetchAllStmt.executeQuery()) {
-            while (rs.next()) {
-                birds.add(new Bird(
-                    rs.getString("name"),
-                    rs.getString("male_image_location"),
-                    rs.getString("category")
-                ));
-            }
-            Collections.shuffle(birds);
-    
-            for (Bird bird : birds) {
-                if (questionsList.size() >= MAX_QUESTIONS) break;
-    
-                String correctName = bird.getName();
-                String imageLocation = bird.getImageLocation();
-                String category = bird.getCategory();
-    
-                Set<String> optionsSet = new HashSet<>();
-                optionsSet.add(correctName);
-    
-                java.util.List<Bird> categoryBirds = new ArrayList<>();
-                for (Bird b : birds) {
-                    if (b.getCategory().equals(category) && !b.getName().equals(correctName)) {
-                        categoryBirds.add(b);
-                    }
-                }
-                Collections.shuffle(categoryBirds);
-                for (Bird b : categoryBirds) {
-                    if (optionsSet.size() >= 3) break;
-                    optionsSet.add(b.getName());
-                }
-    
-                for (Bird b : birds) {
-                    if (optionsSet.size() >= 3) break;
-                    if (!optionsSet.contains(b.getName()) && !b.getName().equals(correctName)) {
-                        optionsSet.add(b.getName());
-                    }
-                }
-    
-                if (optionsSet.size() == 3) {
-                    java.util.List<String> optionsList = new ArrayList<>(optionsSet);
-                    Collections.shuffle(optionsList);
-                    questionsList.add(new Question(correctName, imageLocation, optionsList));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return questionsList;
+        // In-memory snapshot; the catalog refreshes it from the database in the background
+        return BirdCatalog.getInstance().questions(tableName).generate(MAX_QUESTIONS);
     }
 
-private void handleSerialInput(String input) {
-    input = input.trim().toLowerCase();
+// Called on the serial thread with a SerialFramer command; debug and blank lines are already dropped
+private void handleSerialCommand(int command, LatencyTracer.Trace trace) {
+    System.out.println("Received Serial Data: " + SerialFramer.name(command));
 
-    // Ignore debug messages like "Button pressed: yellow"
-    if (input.startsWith("button pressed:") || input.startsWith("button released:") || input.isEmpty()) {
-        return;
-    }
-
-    Runnable selectRadioButtonTask = createRadioButtonTask(input);
+    Runnable selectRadioButtonTask = createRadioButtonTask(command);
 
     if (selectRadioButtonTask != null) {
         SwingUtilities.invokeLater(() -> {
+            if (trace != null) trace.onEdt("quiz");
             selectRadioButtonTask.run();
+            if (trace != null) trace.clicked();
             JPanel optionsPanel = getOptionsPanel();
             if (optionsPanel != null) {
                 optionsPanel.revalidate();
                 optionsPanel.repaint();
             }
         });
-    } else {
-        System.err.println("Unknown input: " + input);
     }
 }
 
 
-    private Runnable createRadioButtonTask(String input) {
-        switch (input) {
-            case "yellow":
+    private Runnable createRadioButtonTask(int command) {
+        switch (command) {
+            case SerialFramer.YELLOW:
                 return () -> {
                     options[2].setSelected(true);
                     options[2].doClick();
                 };
-            case "blue":
+            case SerialFramer.BLUE:
                 return () -> {
                     options[0].setSelected(true);
                     options[0].doClick();
                 };
-            case "green":
+            case SerialFramer.GREEN:
                 return () -> {
                     options[1].setSelected(true);
                     options[1].doClick();
                 };
-            case "submit":
+            case SerialFramer.SUBMIT:
                 long currentTime = System.currentTimeMillis();
                 if (currentTime - lastSubmitTime > SUBMIT_COOLDOWN) {
-                    submitButton.doClick();
                     lastSubmitTime = currentTime;
+                    // On the EDT like the answer buttons, so the submit is traced the same way
+                    return () -> submitButton.doClick();
                 }
                 return null;
             default:
-                System.err.println("Unknown input: " + input);
+                System.err.println("Unknown input: " + command);
                 return null;
         }
     }
@@ -599,9 +466,13 @@ private void handleSerialInput(String input) {
             } else {
                 finalMessageLabel.setText("Quiz completed! Your final score is " + score + "/" + totalQuestionsAnswered);
             }
+            System.out.println("[PREFETCH] quiz finished: " + imagePrefetcher.stats());
+            System.out.println("[IMAGE CACHE] " + ImageCache.getInstance().stats());
+            System.out.println("[SOUND] " + SoundUtil.stats());
+            System.out.println("[LATENCY]" + LatencyTracer.report());
     
+            // Queued; both quiz_results rows are written in the background
             quizScoreProcessor.saveQuizResult(firstName, email, tableName, score, totalQuestionsAnswered);
-            saveQuizResultToDatabase();
     
             submitButton.setEnabled(false);
             newQuizButton.setEnabled(true);
@@ -609,85 +480,45 @@ private void handleSerialInput(String input) {
     }
     
     private void sendSerialMessage(String message) {
-        if (serialPort != null && serialPort.isOpen()) {
-            String formattedMessage = message + "\n";
-            serialPort.writeBytes(formattedMessage.getBytes(), formattedMessage.length());
-            System.out.println("Sent to Arduino: " + message);
-        }
+        SerialSession.getInstance().send(message);
     }
 
 
 
-    private void saveQuizResultToDatabase() {
-        String sql = "INSERT INTO quiz_results (first_name, email, quiz_table, score, total_questions) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, firstName);
-            pstmt.setString(2, email);
-            pstmt.setString(3, tableName);
-            pstmt.setInt(4, score);
-            pstmt.setInt(5, totalQuestionsAnswered);
-            pstmt.executeUpdate();
-            System.out.println("Quiz result successfully stored in the database");
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
     private void nextQuestion() {
         if (currentQuestionIndex < questions.size()) {
          loadImageAndOptions(questions.get(currentQuestionIndex));
+         prefetchFrom(currentQuestionIndex + 1);
         }
     }
 
+    // Queue background decodes for the next PREFETCH_AHEAD questions, starting at 'start'
+    private void prefetchFrom(int start) {
+        Dimension box = imageBounds();
+        int end = Math.min(questions.size(), start + PREFETCH_AHEAD);
+        for (int i = start; i < end; i++) {
+            imagePrefetcher.prefetch(questions.get(i).getImageLocation(), box.width, box.height);
+        }
+    }
+
+    // Box the bird photo has to fit into; prefetches and takes must agree on it
+    private Dimension imageBounds() {
+        return imageBox;
+    }
 
    private void loadImageAndOptions(Question question) {
     String imgLocation = question.getImageLocation(); // e.g. "chickadee.jpg"
     System.out.println("Image filename from DB: " + imgLocation);
 
-    ImageIcon imageIcon = imageCache.get(imgLocation);
-
-    if (imageIcon == null) {
-        // Search through /images and its subfolders
-        String[] basePaths = {
-            "/images/",
-            "/images/songbirds/",
-            "/images/ducks/",
-            "/images/raptors/",
-            "/images/shorebirds/"
-        };
-
-        for (String base : basePaths) {
-            String fullPath = base + imgLocation;
-            java.net.URL imageUrl = getClass().getResource(fullPath);
-
-            if (imageUrl != null) {
-                imageIcon = new ImageIcon(imageUrl);
-                imageCache.put(imgLocation, imageIcon);
-                System.out.println("Image found at: " + fullPath);
-                break;
-            }
-        }
-    }
+    Dimension box = imageBounds();
+    ImageIcon imageIcon = imagePrefetcher.take(imgLocation, box.width, box.height);
 
     if (imageIcon == null) {
         imageLabel.setText("Failed to load image: " + imgLocation);
         return;
     }
 
-    // --- scaling + options (same as you had before) ---
-    int imageWidth = imageIcon.getIconWidth();
-    int imageHeight = imageIcon.getIconHeight();
-    double aspectRatio = (double) imageWidth / imageHeight;
-
-    int width = getWidth();
-    int height = (int) (width / aspectRatio);
-    if (height > getHeight() * 0.7) {
-        height = (int) (getHeight() * 0.7);
-        width = (int) (height * aspectRatio);
-    }
-
-    Image scaledImage = imageIcon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-    imageLabel.setIcon(new ImageIcon(scaledImage));
+    imageLabel.setIcon(imageIcon);
 
     java.util.List<String> optionsList = new ArrayList<>(question.getOptions());
     Collections.shuffle(optionsList);
@@ -717,6 +548,15 @@ private void handleSerialInput(String input) {
 
 
 
+    @Override
+    public void dispose() {
+        SerialSession.getInstance().unsubscribe(serialSubscriber);
+        // A resize just before closing must not rescale, and prefetch, after shutdown
+        if (resizeTimer != null) resizeTimer.stop();
+        imagePrefetcher.shutdown();
+        super.dispose();
+    }
+
     public static class Question {
         private final String correctName;
         private final String imageLocation;
@@ -0,0 +1,120 @@
+package birdquiz;
+
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide atlas of the arcade button art under /buttons.
+ *
+ * Each PNG is decoded once per JVM and each requested size is scaled once, then shared
+ * by every quiz window and the main menu. Icons are multi-resolution: besides the
+ * logical size they carry a variant at the screen's scale factor (and 2x), so they stay
+ * sharp on HiDPI kiosk displays without Swing scaling a 1x bitmap up. A PNG that fails
+ * to decode is remembered and not read again.
+ */
+public class ButtonIcons {
+    /** All button art, so the menu can load it before the first quiz needs it. */
+    public static final String[] NAMES = {
+        "blue.png", "blue_selected.png", "green.png", "green_selected.png",
+        "yellow.png", "yellow_selected.png", "white.png", "white_selected.png"
+    };
+
+    // Largest size we ever draw; sources are decoded (subsampled) to this and never larger
+    private static final int MAX_SOURCE_SIZE = 512;
+
+    private static final Map<String, BufferedImage> sources = new ConcurrentHashMap<>();
+    private static final Map<String, Image> scaled = new ConcurrentHashMap<>();
+    private static final Map<String, ImageIcon> icons = new ConcurrentHashMap<>();
+    private static final Map<String, IOException> failures = new ConcurrentHashMap<>();
+    private static volatile boolean preloaded = false;
+
+    private ButtonIcons() {}
+
+    /** Square icon of the given logical size, e.g. icon("blue.png", 50). */
+    public static ImageIcon icon(String name, int size) throws IOException {
+        String key = name + "@" + size;
+        ImageIcon icon = icons.get(key);
+        if (icon == null) {
+            icon = new ImageIcon(image(name, size));
+            icons.put(key, icon);
+        }
+        return icon;
+    }
+
+    /** Multi-resolution image of the given logical size, for components that paint the art themselves. */
+    public static Image image(String name, int size) throws IOException {
+        String key = name + "@" + size;
+        Image image = scaled.get(key);
+        if (image == null) {
+            BufferedImage source = source(name);
+            double screenScale = screenScale();
+            java.util.List<Image> variants = new java.util.ArrayList<>();
+            variants.add(ImageScaler.scale(source, size, size));
+            for (double scale : new double[] {screenScale, 2.0}) {
+                int px = (int) Math.round(size * scale);
+                if (scale > 1.0 && px <= source.getWidth() && variants.stream().noneMatch(v -> v.getWidth(null) == px)) {
+                    variants.add(ImageScaler.scale(source, px, px));
+                }
+            }
+            image = new BaseMultiResolutionImage(variants.toArray(new Image[0]));
+            scaled.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * The image for painting code: null until {@link #preload} has finished or if the art
+     * failed to load, so a paint never decodes a PNG.
+     */
+    public static Image preloadedImage(String name, int size) {
+        if (!preloaded || !sources.containsKey(name)) return null;
+        try {
+            return image(name, size);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Decodes every button PNG; call from a background thread at startup. */
+    public static void preload() {
+        long start = System.nanoTime();
+        for (String name : NAMES) {
+            try {
+                source(name);
+            } catch (IOException e) {
+                System.err.println("[BUTTONS] " + e.getMessage());
+            }
+        }
+        preloaded = true;
+        System.out.println("[BUTTONS] Decoded " + sources.size() + " button images in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static BufferedImage source(String name) throws IOException {
+        BufferedImage source = sources.get(name);
+        if (source == null) {
+            IOException failure = failures.get(name);
+            if (failure != null) throw failure;
+            try {
+                source = ImageDecoder.decode("/buttons/" + name, MAX_SOURCE_SIZE, MAX_SOURCE_SIZE);
+            } catch (IOException e) {
+                failures.put(name, e);
+                throw e;
+            }
+            sources.put(name, source);
+        }
+        return source;
+    }
+
+    private static double screenScale() {
+        if (GraphicsEnvironment.isHeadless()) return 1.0;
+        AffineTransform tx = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration().getDefaultTransform();
+        return Math.max(1.0, tx.getScaleX());
+    }
+}
@@ -0,0 +1,13 @@
+package birdquiz;
+
+import java.util.List;
+
+/**
+ * Source of the birds in each quiz table. {@link BirdCatalog} reads through this, so the
+ * quiz can run against MySQL, a local file snapshot or data held in memory.
+ */
+public interface CatalogRepository {
+
+    /** Every bird in the table, in storage order. */
+    List<BirdQuizGUI.Bird> loadTable(String table) throws RepositoryException;
+}
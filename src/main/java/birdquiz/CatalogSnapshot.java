@@ -0,0 +1,196 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Binary copy of the {@link BirdCatalog} on local disk, so a cold start has questions
+ * before the database has answered. Written after every successful refresh to
+ * -Dbirdquiz.catalog.snapshot (default cache/catalog.bin) and memory-mapped at startup.
+ *
+ * Every distinct string (names, image files, categories, table names) is stored once
+ * and referred to by index, so categories shared by a whole table cost four bytes per
+ * bird. Layout, big-endian:
+ *
+ *   header   magic "BQCS", version, created-at millis, source string, string count,
+ *            table count, CRC32 of everything after the header      (32 bytes)
+ *   offsets  string count + 1 ints into the string data
+ *   tables   table count x (name string, first record, record count)   (12 bytes each)
+ *   records  one per bird: name, image, category string, -1 for null  (12 bytes each)
+ *   strings  UTF-8 bytes
+ *
+ * The source is the repository class that produced the catalog; a snapshot from a
+ * different backend, another version or with a bad checksum is ignored.
+ */
+public class CatalogSnapshot {
+    private static final int MAGIC = 0x42514353; // "BQCS"
+    // 2: null fields are stored as -1 rather than as the empty string
+    private static final int VERSION = 2;
+    private static final int NULL_ID = -1;
+    private static final int HEADER_BYTES = 32;
+    private static final int TABLE_BYTES = 12;
+    private static final int RECORD_BYTES = 12;
+
+    private CatalogSnapshot() {}
+
+    public static Path defaultPath() {
+        return Paths.get(System.getProperty("birdquiz.catalog.snapshot", "cache/catalog.bin"));
+    }
+
+    /** Writes the tables to a temporary file and moves it over the previous snapshot. */
+    public static void write(Path path, String source, Map<String, java.util.List<BirdQuizGUI.Bird>> tables) throws IOException {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        int sourceId = intern(ids, source);
+        int birds = 0;
+        for (Map.Entry<String, java.util.List<BirdQuizGUI.Bird>> table : tables.entrySet()) {
+            intern(ids, table.getKey());
+            for (BirdQuizGUI.Bird bird : table.getValue()) {
+                intern(ids, bird.getName());
+                intern(ids, bird.getImageLocation());
+                intern(ids, bird.getCategory());
+                birds++;
+            }
+        }
+
+        byte[][] strings = new byte[ids.size()][];
+        int stringBytes = 0;
+        int i = 0;
+        for (String s : ids.keySet()) {
+            strings[i] = s.getBytes(StandardCharsets.UTF_8);
+            stringBytes += strings[i++].length;
+        }
+
+        int bodyBytes = (strings.length + 1) * 4 + tables.size() * TABLE_BYTES + birds * RECORD_BYTES + stringBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bodyBytes);
+        buffer.position(HEADER_BYTES);
+        int offset = 0;
+        for (byte[] s : strings) {
+            buffer.putInt(offset);
+            offset += s.length;
+        }
+        buffer.putInt(offset);
+        int record = 0;
+        for (Map.Entry<String, java.util.List<BirdQuizGUI.Bird>> table : tables.entrySet()) {
+            buffer.putInt(ids.get(table.getKey()));
+            buffer.putInt(record);
+            buffer.putInt(table.getValue().size());
+            record += table.getValue().size();
+        }
+        for (java.util.List<BirdQuizGUI.Bird> table : tables.values()) {
+            for (BirdQuizGUI.Bird bird : table) {
+                buffer.putInt(id(ids, bird.getName()));
+                buffer.putInt(id(ids, bird.getImageLocation()));
+                buffer.putInt(id(ids, bird.getCategory()));
+            }
+        }
+        for (byte[] s : strings) {
+            buffer.put(s);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, bodyBytes);
+        buffer.position(0);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putInt(sourceId);
+        buffer.putInt(strings.length);
+        buffer.putInt(tables.size());
+        buffer.putInt((int) crc.getValue());
+
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The tables in the snapshot, or null if there is none, or it is unreadable or was
+     * written from a different source.
+     */
+    public static Map<String, java.util.List<BirdQuizGUI.Bird>> read(Path path, String source) {
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                return rejected(path, "bad size " + channel.size());
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.getInt() != MAGIC) return rejected(path, "not a catalog snapshot");
+            int version = data.getInt();
+            if (version != VERSION) return rejected(path, "version " + version);
+            data.getLong();
+            int sourceId = data.getInt();
+            int stringCount = data.getInt();
+            int tableCount = data.getInt();
+            int checksum = data.getInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(data.duplicate());
+            if ((int) crc.getValue() != checksum) return rejected(path, "checksum mismatch");
+
+            int tablesStart = HEADER_BYTES + (stringCount + 1) * 4;
+            int recordsStart = tablesStart + tableCount * TABLE_BYTES;
+            int recordCount = 0;
+            for (int t = 0; t < tableCount; t++) {
+                recordCount += data.getInt(tablesStart + t * TABLE_BYTES + 8);
+            }
+            int dataStart = recordsStart + recordCount * RECORD_BYTES;
+
+            // Each string is decoded once and shared by every record that refers to it
+            String[] strings = new String[stringCount];
+            byte[] bytes = new byte[0];
+            for (int s = 0; s < stringCount; s++) {
+                int from = data.getInt(HEADER_BYTES + s * 4);
+                int length = data.getInt(HEADER_BYTES + (s + 1) * 4) - from;
+                if (bytes.length < length) bytes = new byte[length];
+                data.position(dataStart + from);
+                data.get(bytes, 0, length);
+                strings[s] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            if (!strings[sourceId].equals(source)) {
+                return rejected(path, "written from " + strings[sourceId]);
+            }
+
+            Map<String, java.util.List<BirdQuizGUI.Bird>> tables = new LinkedHashMap<>();
+            for (int t = 0; t < tableCount; t++) {
+                int entry = tablesStart + t * TABLE_BYTES;
+                int first = data.getInt(entry + 4);
+                int count = data.getInt(entry + 8);
+                java.util.List<BirdQuizGUI.Bird> birds = new ArrayList<>(count);
+                for (int r = first; r < first + count; r++) {
+                    int at = recordsStart + r * RECORD_BYTES;
+                    birds.add(new BirdQuizGUI.Bird(string(strings, data.getInt(at)), string(strings, data.getInt(at + 4)),
+                            string(strings, data.getInt(at + 8))));
+                }
+                tables.put(strings[data.getInt(entry)], Collections.unmodifiableList(birds));
+            }
+            return tables;
+        } catch (IOException | RuntimeException e) {
+            return rejected(path, e.toString());
+        }
+    }
+
+    private static Map<String, java.util.List<BirdQuizGUI.Bird>> rejected(Path path, String reason) {
+        System.err.println("[CATALOG] Ignoring snapshot " + path + ": " + reason);
+        return null;
+    }
+
+    private static int intern(Map<String, Integer> ids, String s) {
+        return s == null ? NULL_ID : ids.computeIfAbsent(s, k -> ids.size());
+    }
+
+    private static int id(Map<String, Integer> ids, String s) {
+        return s == null ? NULL_ID : ids.get(s);
+    }
+
+    private static String string(String[] strings, int id) {
+        return id == NULL_ID ? null : strings[id];
+    }
+}
@@ -0,0 +1,137 @@
+package birdquiz;
+
+import java.awt.Dimension;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes and scales every image of a quiz category into the shared {@link ImageCache}
+ * in parallel, so the first pass through a category does not pay decode cost per question.
+ *
+ * Started from the main menu when a category is hovered or chosen, and speculatively for
+ * the last category played. Every image is loaded into the {@link CompressedImageStore};
+ * only as many as fit in the decoded cache budget are also decoded.
+ */
+public class CategoryWarmup {
+
+    /** Called from a pool thread after each image; done == total when the category is ready. */
+    public interface ProgressListener {
+        void onProgress(String table, int done, int total);
+    }
+
+    private static final ForkJoinPool pool = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+            p -> {
+                ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                t.setName("category-warmup-" + t.getPoolIndex());
+                t.setDaemon(true);
+                return t;
+            },
+            null, true);
+
+    private static final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+    private static volatile String lastUsedTable;
+
+    private CategoryWarmup() {}
+
+    /**
+     * Warms the table's images from the {@link BirdCatalog} once it is loaded, or the
+     * images that were in the table's image folder at build time until then.
+     */
+    public static CompletableFuture<Void> warm(String table, ProgressListener listener) {
+        return warm(table, imageLocations(table), BirdImageLoader.screenBox(), listener);
+    }
+
+    /**
+     * Warms the given images for the given display box. If the table is already being
+     * warmed, returns the running warm-up instead of starting a second one.
+     */
+    public static CompletableFuture<Void> warm(String table, Collection<String> imageLocations, Dimension box, ProgressListener listener) {
+        CompletableFuture<Void> current = running.get(table);
+        if (current != null && !current.isDone()) {
+            return current;
+        }
+
+        // Decode only what the cache can hold; decoding more would just evict what was warmed first
+        ImageCache cache = ImageCache.getInstance();
+        CompressedImageStore store = CompressedImageStore.getInstance();
+        long perImage = Math.max(1L, (long) box.width * box.height * 4);
+        int limit = (int) Math.min(Integer.MAX_VALUE, cache.getBudgetBytes() / perImage);
+        java.util.List<String> names = new ArrayList<>(new LinkedHashSet<>(imageLocations));
+        if (names.size() > limit) {
+            System.out.println("[WARMUP] " + table + ": cache budget fits " + limit + " of " + names.size() + " decoded images");
+        }
+
+        int total = names.size();
+        AtomicInteger done = new AtomicInteger();
+        long start = System.nanoTime();
+        if (listener != null) listener.onProgress(table, 0, total);
+
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[total];
+        for (int i = 0; i < total; i++) {
+            String name = names.get(i);
+            boolean decode = i < limit;
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    store.load(name, box.width, box.height);
+                    if (decode) {
+                        BirdImageLoader.load(name, box.width, box.height);
+                    }
+                } finally {
+                    int n = done.incrementAndGet();
+                    if (listener != null) listener.onProgress(table, n, total);
+                }
+            }, pool);
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(tasks).whenComplete((v, e) -> {
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("[WARMUP] " + table + ": " + total + " images ready in " + ms + " ms (" + cache.stats()
+                    + "; compressed " + store.stats() + ")");
+        });
+        running.put(table, all);
+        return all;
+    }
+
+    /**
+     * Loads the encoded images of every given table into the {@link CompressedImageStore}
+     * in the background, without decoding anything.
+     */
+    public static void storeCategories(Collection<String> tables) {
+        Dimension box = BirdImageLoader.screenBox();
+        CompressedImageStore store = CompressedImageStore.getInstance();
+        for (String table : tables) {
+            for (String name : imageLocations(table)) {
+                if (!store.contains(name, box.width, box.height)) {
+                    pool.execute(() -> store.load(name, box.width, box.height));
+                }
+            }
+        }
+    }
+
+    public static String getLastUsedTable() {
+        return lastUsedTable;
+    }
+
+    public static void setLastUsedTable(String table) {
+        lastUsedTable = table;
+    }
+
+    private static Collection<String> imageLocations(String table) {
+        BirdCatalog catalog = BirdCatalog.getInstance();
+        if (!catalog.isLoaded(table)) {
+            return ImageRenditions.getInstance().fileNamesInFolder(folderFor(table));
+        }
+        java.util.List<String> names = new ArrayList<>();
+        for (BirdQuizGUI.Bird bird : catalog.birds(table)) {
+            names.add(bird.getImageLocation());
+        }
+        return names;
+    }
+
+    // Table names match the image folders except for shore_birds
+    static String folderFor(String table) {
+        return "shore_birds".equals(table) ? "shorebirds" : table;
+    }
+}
@@ -0,0 +1,199 @@
+package birdquiz;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Middle tier between the decoded {@link ImageCache} and the jar or content packs:
+ * keeps the encoded, display-size JPEG bytes of whole categories in off-heap memory.
+ *
+ * Entries are keyed like the {@link ImageCache}, by file and display box
+ * ("file@WxH"), since the bytes are encoded for that box. They live in direct
+ * ByteBuffer slabs that are filled front to back. A display-size JPEG is 10-20x smaller
+ * than its decoded pixels, so every bird in every table fits in a fraction of what the
+ * decoded images would need. Only the current and upcoming questions are decoded, from
+ * here rather than from disk.
+ *
+ * The budget defaults to 128 MB and can be changed with -Dbirdquiz.compressedStore.mb=N.
+ * When it is used up the oldest slab is evicted with every entry in it, so entries for
+ * a box that is no longer shown age out; an entry larger than the whole budget is
+ * skipped and read from the jar or packs as before.
+ */
+public class CompressedImageStore {
+    private static final long DEFAULT_BUDGET_MB = 128;
+    private static final int SLAB_SIZE = 8 * 1024 * 1024;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private static CompressedImageStore instance;
+
+    /** A direct buffer and the keys of the entries stored in it, evicted together. */
+    private static class Slab {
+        final ByteBuffer buffer;
+        final java.util.List<String> keys = new ArrayList<>();
+
+        Slab(int capacity) {
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+    }
+
+    private final long budgetBytes;
+    // Oldest first
+    private final ArrayDeque<Slab> slabs = new ArrayDeque<>();
+    private final Map<String, ByteBuffer> entries = new ConcurrentHashMap<>();
+    private Slab currentSlab;
+    private long reservedBytes = 0;
+    private long storedBytes = 0;
+    private long evictedSlabs = 0;
+    private boolean budgetReported = false;
+
+    public CompressedImageStore(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static synchronized CompressedImageStore getInstance() {
+        if (instance == null) {
+            long mb = Long.getLong("birdquiz.compressedStore.mb", DEFAULT_BUDGET_MB);
+            instance = new CompressedImageStore(mb * 1024 * 1024);
+        }
+        return instance;
+    }
+
+    /** Read-only view of the image's bytes encoded for the box, or null if they are not held here. */
+    public ByteBuffer get(String imgLocation, int maxWidth, int maxHeight) {
+        ByteBuffer buffer = entries.get(ImageCache.key(imgLocation, maxWidth, maxHeight));
+        return buffer == null ? null : buffer.duplicate();
+    }
+
+    public boolean contains(String imgLocation, int maxWidth, int maxHeight) {
+        return entries.containsKey(ImageCache.key(imgLocation, maxWidth, maxHeight));
+    }
+
+    /**
+     * Loads the encoded image for the box into the store if it is not already there.
+     * Renditions are stored as they are; originals are scaled down and re-encoded first.
+     * Returns false if the image cannot be found or the budget is used up.
+     */
+    public boolean load(String imgLocation, int maxWidth, int maxHeight) {
+        if (imgLocation == null) return false;
+        String key = ImageCache.key(imgLocation, maxWidth, maxHeight);
+        if (entries.containsKey(key)) return true;
+
+        ImageIndex index = ImageIndex.getInstance();
+        String path = index.resolve(imgLocation, maxWidth, maxHeight);
+        if (path == null) return false;
+
+        try {
+            byte[] encoded;
+            if (!path.equals(index.resolveOriginal(imgLocation))) {
+                try (InputStream in = ResourceLoader.openOrThrow(path)) {
+                    encoded = in.readAllBytes();
+                }
+            } else {
+                encoded = reencode(path, maxWidth, maxHeight);
+            }
+            return put(key, encoded);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    synchronized boolean put(String key, byte[] encoded) {
+        if (entries.containsKey(key)) return true;
+
+        Slab target;
+        if (encoded.length > SLAB_SIZE / 4) {
+            // Big entries get their own buffer so they do not strand the tail of a slab
+            if (!makeRoom(encoded.length)) return overBudget(key);
+            target = new Slab(encoded.length);
+            slabs.add(target);
+            reservedBytes += encoded.length;
+        } else {
+            if (currentSlab == null || currentSlab.buffer.remaining() < encoded.length) {
+                if (!makeRoom(SLAB_SIZE)) return overBudget(key);
+                currentSlab = new Slab(SLAB_SIZE);
+                slabs.add(currentSlab);
+                reservedBytes += SLAB_SIZE;
+            }
+            target = currentSlab;
+        }
+
+        int start = target.buffer.position();
+        target.buffer.put(encoded);
+        ByteBuffer view = target.buffer.duplicate();
+        view.position(start).limit(start + encoded.length);
+        entries.put(key, view.slice().asReadOnlyBuffer());
+        target.keys.add(key);
+        storedBytes += encoded.length;
+        return true;
+    }
+
+    // Evicts the oldest slabs until the bytes fit; their memory is freed once readers drop their views
+    private boolean makeRoom(long bytes) {
+        if (bytes > budgetBytes) return false;
+        while (reservedBytes + bytes > budgetBytes && !slabs.isEmpty()) {
+            Slab oldest = slabs.poll();
+            if (oldest == currentSlab) currentSlab = null;
+            for (String key : oldest.keys) {
+                storedBytes -= entries.remove(key).remaining();
+            }
+            reservedBytes -= oldest.buffer.capacity();
+            evictedSlabs++;
+        }
+        return true;
+    }
+
+    private boolean overBudget(String key) {
+        if (!budgetReported) {
+            budgetReported = true;
+            System.out.println("[COMPRESSED STORE] Larger than the budget, not storing " + key + " (" + stats() + ")");
+        }
+        return false;
+    }
+
+    private static byte[] reencode(String path, int maxWidth, int maxHeight) throws IOException {
+        BufferedImage decoded = ImageDecoder.decode(path, maxWidth, maxHeight);
+        java.awt.Dimension fit = ImageRenditionGenerator.fit(decoded.getWidth(), decoded.getHeight(), maxWidth, maxHeight);
+        BufferedImage scaled = ImageScaler.scale(decoded, fit.width, fit.height, BufferedImage.TYPE_INT_RGB);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(fit.width * fit.height / 4);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(scaled, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public synchronized long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public synchronized String stats() {
+        return "entries=" + entries.size() + ", stored=" + (storedBytes / 1024) + " KB, reserved="
+                + (reservedBytes / 1024) + " KB of " + (budgetBytes / 1024) + " KB, evicted slabs=" + evictedSlabs;
+    }
+}
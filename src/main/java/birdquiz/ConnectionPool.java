@@ -0,0 +1,253 @@
+package birdquiz;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small MySQL connection pool shared by every quiz window and the score writers.
+ *
+ * Connections handed out are wrappers whose close() gives the connection back instead
+ * of closing it, so callers use try-with-resources exactly as with DriverManager. An
+ * idle connection is validated before it is handed out, idle connections are closed
+ * after a while so MySQL's wait_timeout never kills one under us, and no more than
+ * the maximum are ever open. Borrowers wait for a free slot up to the borrow timeout.
+ *
+ * Settings (system properties):
+ *   birdquiz.db.url        default jdbc:mysql://localhost:3306/birds_db
+ *   birdquiz.db.user       default root
+ *   birdquiz.db.password
+ *   birdquiz.db.poolSize   default 4
+ *   birdquiz.db.idleSec    default 300
+ *   birdquiz.db.waitMs     default 5000
+ */
+public class ConnectionPool {
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/birds_db";
+    private static final String DEFAULT_USERNAME = "root";
+    private static final String DEFAULT_PASSWORD = "Neskowin71";
+    private static final int VALIDATION_TIMEOUT_SEC = 2;
+
+    private static ConnectionPool instance;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long idleMillis;
+    private final long waitMillis;
+
+    private final Semaphore permits;
+    private final BlockingDeque<Idle> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private final Metrics metrics = Metrics.getInstance();
+
+    public ConnectionPool(String url, String username, String password, int maxSize, long idleMillis, long waitMillis) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.idleMillis = idleMillis;
+        this.waitMillis = waitMillis;
+        this.permits = new Semaphore(this.maxSize, true);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+
+        metrics.gauge("db.pool.active", active::get);
+        metrics.gauge("db.pool.idle", idle::size);
+        metrics.gauge("db.pool.max", () -> this.maxSize);
+    }
+
+    public static synchronized ConnectionPool getInstance() {
+        if (instance == null) {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
+            instance = new ConnectionPool(
+                    System.getProperty("birdquiz.db.url", DEFAULT_URL),
+                    System.getProperty("birdquiz.db.user", DEFAULT_USERNAME),
+                    System.getProperty("birdquiz.db.password", DEFAULT_PASSWORD),
+                    Integer.getInteger("birdquiz.db.poolSize", 4),
+                    Long.getLong("birdquiz.db.idleSec", 300) * 1000,
+                    Long.getLong("birdquiz.db.waitMs", 5000));
+        }
+        return instance;
+    }
+
+    /** A pooled connection; close it to give it back. */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                metrics.increment("db.pool.timeouts");
+                throw new SQLTimeoutException("No database connection free after " + waitMillis + " ms ("
+                        + active.get() + " of " + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        }
+
+        try {
+            Connection raw = takeValidIdle();
+            if (raw == null) {
+                raw = DriverManager.getConnection(url, username, password);
+                metrics.increment("db.pool.created");
+                System.out.println("[DB POOL] Opened connection (" + (active.get() + 1) + " of " + maxSize + " in use)");
+            }
+            active.incrementAndGet();
+            metrics.recordSince("db.pool.wait", start);
+            return wrap(raw);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Most recently used first, so rarely used connections age out
+    private Connection takeValidIdle() {
+        Idle candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            try {
+                if (candidate.connection.isValid(VALIDATION_TIMEOUT_SEC)) {
+                    return candidate.connection;
+                }
+            } catch (SQLException ignore) {
+                // treated as invalid
+            }
+            metrics.increment("db.pool.validationFailures");
+            closeQuietly(candidate.connection);
+        }
+        return null;
+    }
+
+    private void release(Connection raw, boolean broken) {
+        active.decrementAndGet();
+        try {
+            if (broken || raw.isClosed()) {
+                closeQuietly(raw);
+                return;
+            }
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            idle.offerFirst(new Idle(raw, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            closeQuietly(raw);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (Iterator<Idle> it = idle.iterator(); it.hasNext(); ) {
+            Idle candidate = it.next();
+            if (candidate.since < cutoff && idle.remove(candidate)) {
+                closeQuietly(candidate.connection);
+                metrics.increment("db.pool.evicted");
+            }
+        }
+    }
+
+    /** Closes idle connections; connections in use are closed when they are given back. */
+    public void shutdown() {
+        evictor.shutdownNow();
+        Idle candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            closeQuietly(candidate.connection);
+        }
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignore) {}
+    }
+
+    private Connection wrap(Connection raw) {
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new Lease(raw));
+    }
+
+    private static class Idle {
+        final Connection connection;
+        final long since;
+
+        Idle(Connection connection, long since) {
+            this.connection = connection;
+            this.since = since;
+        }
+    }
+
+    // Forwards everything to the real connection except close(), which returns it to the pool once
+    private class Lease implements InvocationHandler {
+        private final Connection raw;
+        private boolean returned = false;
+        private boolean broken = false;
+
+        Lease(Connection raw) {
+            this.raw = raw;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(raw, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "pooled " + raw;
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection already returned to the pool");
+                    }
+                    try {
+                        return method.invoke(raw, args);
+                    } catch (InvocationTargetException e) {
+                        // A connection-level failure (SQLState class 08) means the socket is gone
+                        Throwable cause = e.getCause();
+                        if (cause instanceof SQLException) {
+                            String state = ((SQLException) cause).getSQLState();
+                            if (state != null && state.startsWith("08")) broken = true;
+                        }
+                        throw cause;
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * Read-only view of a content pack file built by {@link ContentPackBuilder}.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   magic "BQPK", int version, int entryCount
+ *   entryCount x { short nameLength, byte[] name (UTF-8), long offset, int length, int width, int height }
+ *   entry data
+ * </pre>
+ * Names are classpath-style paths such as "/buttons/blue.png". Width and height are 0
+ * for entries that are not images. The whole file is memory-mapped, so lookups are a
+ * hash map get and reads are slices of the mapping with no copying.
+ */
+public class ContentPack {
+    static final int MAGIC = 0x4251504B; // "BQPK"
+    static final int VERSION = 1;
+    // Smallest table entry: an empty name, then offset, length, width and height
+    private static final int MIN_ENTRY_BYTES = 2 + 8 + 4 + 4 + 4;
+
+    /** Position and size of one file inside the pack. */
+    public static class Entry {
+        private final String name;
+        private final long offset;
+        private final int length;
+        private final int width;
+        private final int height;
+
+        Entry(String name, long offset, int length, int width, int height) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    private final Path file;
+    private final ByteBuffer mapped;
+    private final Map<String, Entry> entries;
+
+    private ContentPack(Path file, ByteBuffer mapped, Map<String, Entry> entries) {
+        this.file = file;
+        this.mapped = mapped;
+        this.entries = entries;
+    }
+
+    public static ContentPack open(Path file) throws IOException {
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.BIG_ENDIAN);
+
+        if (mapped.remaining() < 12 || mapped.getInt() != MAGIC) {
+            throw new IOException("Not a content pack: " + file);
+        }
+        int version = mapped.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported content pack version " + version + ": " + file);
+        }
+        int count = mapped.getInt();
+        if (count < 0 || count > mapped.remaining() / MIN_ENTRY_BYTES) {
+            throw new IOException("Corrupt content pack " + file + ": " + count + " entries");
+        }
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (mapped.remaining() < MIN_ENTRY_BYTES) {
+                throw new IOException("Truncated content pack " + file + " at entry " + i);
+            }
+            int nameLength = mapped.getShort() & 0xFFFF;
+            if (mapped.remaining() < nameLength + MIN_ENTRY_BYTES - 2) {
+                throw new IOException("Truncated content pack " + file + " at entry " + i);
+            }
+            byte[] nameBytes = new byte[nameLength];
+            mapped.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            Entry entry = new Entry(name, mapped.getLong(), mapped.getInt(), mapped.getInt(), mapped.getInt());
+            if (entry.offset < 0 || entry.length < 0 || entry.offset + entry.length > mapped.capacity()) {
+                throw new IOException("Truncated content pack " + file + " at entry " + name);
+            }
+            entries.put(name, entry);
+        }
+        return new ContentPack(file, mapped, Collections.unmodifiableMap(entries));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    public Entry entry(String name) {
+        return entries.get(name);
+    }
+
+    /** Read-only slice of the mapping holding the entry's bytes, or null if there is no such entry. */
+    public ByteBuffer slice(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) return null;
+        ByteBuffer view = mapped.duplicate();
+        view.position((int) entry.offset).limit((int) (entry.offset + entry.length));
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    public InputStream openStream(String name) {
+        ByteBuffer slice = slice(name);
+        return slice == null ? null : new ByteBufferInputStream(slice);
+    }
+
+    /** Seekable ImageIO stream over the entry, so ImageIO does not spool it to a cache file. */
+    public javax.imageio.stream.ImageInputStream openImageStream(String name) {
+        ByteBuffer slice = slice(name);
+        return slice == null ? null : new ByteBufferImageInputStream(slice);
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        private int mark = 0;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            mark = buffer.position();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.position(mark);
+        }
+    }
+
+    static class ByteBufferImageInputStream extends ImageInputStreamImpl {
+        private final ByteBuffer buffer;
+
+        ByteBufferImageInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (streamPos >= buffer.limit()) return -1;
+            return buffer.get((int) streamPos++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (len == 0) return 0;
+            int remaining = buffer.limit() - (int) streamPos;
+            if (remaining <= 0) return -1;
+            int n = Math.min(len, remaining);
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) streamPos);
+            view.get(b, off, n);
+            streamPos += n;
+            return n;
+        }
+
+        @Override
+        public long length() {
+            return buffer.limit();
+        }
+    }
+}
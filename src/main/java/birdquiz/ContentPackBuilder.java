@@ -0,0 +1,134 @@
+package birdquiz;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Packs the kiosk's media into {@link ContentPack} files, one per category.
+ *
+ * Usage: java birdquiz.ContentPackBuilder [outDir] [root...]
+ * Defaults to writing to packs/ from src/main/resources and, when it exists,
+ * target/classes (for the generated renditions).
+ *
+ * Files under buttons/ and sounds/ go to buttons.pack and sounds.pack; files under
+ * images/ and renditions/ are split by their next folder, e.g. images-ducks.pack or
+ * renditions-1080p.pack. Point the kiosk at the output folder with
+ * -Dbirdquiz.packs=dir (see {@link ResourceLoader}); updating content is then a
+ * matter of swapping pack files.
+ */
+public class ContentPackBuilder {
+    private static final Set<String> PACKED_FOLDERS = new HashSet<>(Arrays.asList("images", "renditions", "buttons", "sounds"));
+    private static final Set<String> SPLIT_FOLDERS = new HashSet<>(Arrays.asList("images", "renditions"));
+
+    public static void main(String[] args) throws IOException {
+        Path outDir = Paths.get(args.length > 0 ? args[0] : "packs");
+        java.util.List<Path> roots = new ArrayList<>();
+        if (args.length > 1) {
+            for (int i = 1; i < args.length; i++) roots.add(Paths.get(args[i]));
+        } else {
+            roots.add(Paths.get("src/main/resources"));
+            if (Files.isDirectory(Paths.get("target/classes/renditions"))) roots.add(Paths.get("target/classes"));
+        }
+
+        // pack name -> entry name -> source file; first root wins on duplicates
+        Map<String, SortedMap<String, Path>> packs = new TreeMap<>();
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                System.out.println("[PACK] Skipping missing root " + root);
+                continue;
+            }
+            java.util.List<Path> files;
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+                String packName = packNameFor(relative);
+                if (packName == null || file.getFileName().toString().startsWith(".")) continue;
+                packs.computeIfAbsent(packName, k -> new TreeMap<>()).putIfAbsent("/" + relative, file);
+            }
+        }
+
+        Files.createDirectories(outDir);
+        for (Map.Entry<String, SortedMap<String, Path>> pack : packs.entrySet()) {
+            Path target = outDir.resolve(pack.getKey() + ".pack");
+            long bytes = write(target, pack.getValue());
+            System.out.println("[PACK] " + target + ": " + pack.getValue().size() + " entries, " + (bytes / 1024) + " KB");
+        }
+    }
+
+    static String packNameFor(String relativePath) {
+        String[] parts = relativePath.split("/");
+        if (parts.length < 2 || !PACKED_FOLDERS.contains(parts[0])) return null;
+        if (SPLIT_FOLDERS.contains(parts[0]) && parts.length > 2) {
+            return parts[0] + "-" + parts[1];
+        }
+        return parts[0];
+    }
+
+    private static long write(Path target, SortedMap<String, Path> files) throws IOException {
+        java.util.List<byte[]> names = new ArrayList<>();
+        java.util.List<int[]> sizes = new ArrayList<>();
+        long headerSize = 12;
+        for (Map.Entry<String, Path> e : files.entrySet()) {
+            byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            sizes.add(dimensions(e.getValue()));
+            headerSize += 2 + name.length + 8 + 4 + 4 + 4;
+        }
+
+        // Write to a temp file and move it into place so a running kiosk never maps a half-written pack
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(ContentPack.MAGIC);
+            out.writeInt(ContentPack.VERSION);
+            out.writeInt(files.size());
+            long offset = headerSize;
+            int i = 0;
+            for (Path file : files.values()) {
+                long length = Files.size(file);
+                out.writeShort(names.get(i).length);
+                out.write(names.get(i));
+                out.writeLong(offset);
+                out.writeInt((int) length);
+                out.writeInt(sizes.get(i)[0]);
+                out.writeInt(sizes.get(i)[1]);
+                offset += length;
+                i++;
+            }
+            for (Path file : files.values()) {
+                Files.copy(file, out);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(target);
+    }
+
+    // Width and height from the image header, or 0x0 for non-images
+    private static int[] dimensions(Path file) {
+        String lower = file.getFileName().toString().toLowerCase();
+        if (!(lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".png"))) {
+            return new int[] {0, 0};
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return new int[] {0, 0};
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return new int[] {0, 0};
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quiz tables read from tab-separated snapshot files, one per table (ducks.tsv, ...),
+ * with one "name, image, category" line per bird. {@link BirdCatalog} {@link #save}s
+ * every table it loads from MySQL into -Dbirdquiz.repository.dir, so a kiosk can be
+ * switched to -Dbirdquiz.repository=file and taken offline with its current catalog.
+ */
+public class FileCatalogRepository implements CatalogRepository {
+    private final Path dir;
+
+    public FileCatalogRepository(Path dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public List<BirdQuizGUI.Bird> loadTable(String table) throws RepositoryException {
+        Path file = fileFor(table);
+        if (!Files.exists(file)) {
+            throw new RepositoryException("No snapshot " + file, null, false);
+        }
+        List<BirdQuizGUI.Bird> birds = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isEmpty()) continue;
+                String[] fields = line.split("\t", -1);
+                if (fields.length < 3) {
+                    System.err.println("[CATALOG] Skipping malformed line in " + file.getFileName() + ": " + line);
+                    continue;
+                }
+                birds.add(new BirdQuizGUI.Bird(fields[0], fields[1], fields[2]));
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Cannot read " + file + ": " + e.getMessage(), e, true);
+        }
+        return birds;
+    }
+
+    /** Replaces the table's snapshot; written to a temporary file and moved into place. */
+    public void save(String table, List<BirdQuizGUI.Bird> birds) throws IOException {
+        Files.createDirectories(dir);
+        StringBuilder out = new StringBuilder();
+        for (BirdQuizGUI.Bird bird : birds) {
+            out.append(clean(bird.getName())).append('\t')
+               .append(clean(bird.getImageLocation())).append('\t')
+               .append(clean(bird.getCategory())).append('\n');
+        }
+        Path file = fileFor(table);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, out.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path fileFor(String table) {
+        return dir.resolve(table + ".tsv");
+    }
+
+    static String clean(String field) {
+        return field == null ? "" : field.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
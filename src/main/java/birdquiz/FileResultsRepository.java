@@ -0,0 +1,60 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Appends results to quiz_results.tsv, one tab-separated line per result (id, created
+ * at, first name, email, quiz, score, questions), for kiosks without a database. Ids
+ * already in the file are skipped, so a replay does not duplicate a line.
+ */
+public class FileResultsRepository implements ResultsRepository {
+    private final Path file;
+    private final Set<String> stored = new HashSet<>();
+
+    public FileResultsRepository(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        this.file = dir.resolve("quiz_results.tsv");
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) stored.add(line.substring(0, tab));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void store(List<QuizResult> batch) throws RepositoryException {
+        StringBuilder out = new StringBuilder();
+        java.util.List<String> ids = new java.util.ArrayList<>();
+        for (QuizResult result : batch) {
+            if (stored.contains(result.getId()) || ids.contains(result.getId())) continue;
+            ids.add(result.getId());
+            out.append(result.getId()).append('\t')
+               .append(result.getCreatedAt()).append('\t')
+               .append(FileCatalogRepository.clean(result.getFirstName())).append('\t')
+               .append(FileCatalogRepository.clean(result.getEmail())).append('\t')
+               .append(FileCatalogRepository.clean(result.getQuizName())).append('\t')
+               .append(result.getScore()).append('\t')
+               .append(result.getTotalQuestions()).append('\n');
+        }
+        if (ids.isEmpty()) return;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer data = ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8));
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RepositoryException("Cannot append to " + file + ": " + e.getMessage(), e, true);
+        }
+        stored.addAll(ids);
+    }
+}
@@ -0,0 +1,122 @@
+package birdquiz;
+
+import javax.swing.ImageIcon;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of scaled, display-size bird images.
+ *
+ * The cache is bounded by the number of decoded pixel bytes it holds (width * height * 4
+ * per entry) and evicts the least recently used entries once that budget is exceeded.
+ * Full-resolution originals are never stored here.
+ *
+ * The budget defaults to 64 MB and can be changed with -Dbirdquiz.imageCache.mb=N.
+ */
+public class ImageCache {
+    private static final long DEFAULT_BUDGET_MB = 64;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static ImageCache instance;
+
+    private final long budgetBytes;
+    private final LinkedHashMap<String, ImageIcon> entries = new LinkedHashMap<>(32, 0.75f, true);
+    private long residentBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public ImageCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static synchronized ImageCache getInstance() {
+        if (instance == null) {
+            long mb = Long.getLong("birdquiz.imageCache.mb", DEFAULT_BUDGET_MB);
+            instance = new ImageCache(mb * 1024 * 1024);
+            System.out.println("[IMAGE CACHE] Budget " + mb + " MB");
+        }
+        return instance;
+    }
+
+    public static String key(String imageLocation, int maxWidth, int maxHeight) {
+        return imageLocation + "@" + maxWidth + "x" + maxHeight;
+    }
+
+    public synchronized ImageIcon get(String key) {
+        ImageIcon icon = entries.get(key);
+        if (icon != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return icon;
+    }
+
+    /** True if the key is cached. Does not touch the hit/miss counters or the LRU order. */
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized void put(String key, ImageIcon icon) {
+        long cost = sizeOf(icon);
+        if (cost > budgetBytes) {
+            // Larger than the whole budget: caching it would just flush everything else
+            return;
+        }
+        ImageIcon previous = entries.put(key, icon);
+        if (previous != null) {
+            residentBytes -= sizeOf(previous);
+        }
+        residentBytes += cost;
+
+        Iterator<Map.Entry<String, ImageIcon>> it = entries.entrySet().iterator();
+        while (residentBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<String, ImageIcon> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            residentBytes -= sizeOf(eldest.getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        residentBytes = 0;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized String stats() {
+        return "entries=" + entries.size()
+                + ", resident=" + (residentBytes / 1024) + " KB of " + (budgetBytes / 1024) + " KB"
+                + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions;
+    }
+
+    private static long sizeOf(ImageIcon icon) {
+        return (long) Math.max(icon.getIconWidth(), 0) * Math.max(icon.getIconHeight(), 0) * BYTES_PER_PIXEL;
+    }
+}
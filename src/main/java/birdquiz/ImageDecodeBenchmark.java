@@ -0,0 +1,113 @@
+package birdquiz;
+
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Microbenchmark comparing the original image path (ImageIcon + getScaledInstance)
+ * with {@link ImageDecoder}'s subsampled decode on the largest duck and raptor photos.
+ *
+ * Usage: java birdquiz.ImageDecodeBenchmark [imagesDir] [width] [height]
+ * Defaults to src/main/resources/images and a 1920x756 box (a 1080p screen at 70% height).
+ */
+public class ImageDecodeBenchmark {
+    private static final int FILES_PER_FOLDER = 3;
+    private static final int WARMUP = 2;
+    private static final int RUNS = 7;
+
+    public static void main(String[] args) throws IOException {
+        File imagesDir = new File(args.length > 0 ? args[0] : "src/main/resources/images");
+        int boxWidth = args.length > 1 ? Integer.parseInt(args[1]) : 1920;
+        int boxHeight = args.length > 2 ? Integer.parseInt(args[2]) : 756;
+
+        java.util.List<File> files = new ArrayList<>();
+        files.addAll(largest(new File(imagesDir, "ducks")));
+        files.addAll(largest(new File(imagesDir, "raptors")));
+        if (files.isEmpty()) {
+            System.out.println("No images found under " + imagesDir.getAbsolutePath());
+            return;
+        }
+
+        System.out.println("=== Image decode benchmark, box " + boxWidth + "x" + boxHeight + " ===");
+        System.out.printf("%-36s %8s %12s %12s %14s%n", "file", "KB", "legacy ms", "subsamp ms", "decoded px");
+        double legacyTotal = 0, subsampledTotal = 0;
+
+        for (File file : files) {
+            URL url = file.toURI().toURL();
+            Dimension source = ImageDecoder.readSize(url);
+
+            for (int i = 0; i < WARMUP; i++) {
+                legacy(url, boxWidth, boxHeight);
+                subsampled(url, boxWidth, boxHeight);
+            }
+
+            double[] legacyMs = new double[RUNS];
+            double[] subsampledMs = new double[RUNS];
+            int decodedPixels = 0;
+            for (int i = 0; i < RUNS; i++) {
+                long t0 = System.nanoTime();
+                legacy(url, boxWidth, boxHeight);
+                long t1 = System.nanoTime();
+                decodedPixels = subsampled(url, boxWidth, boxHeight);
+                long t2 = System.nanoTime();
+                legacyMs[i] = (t1 - t0) / 1e6;
+                subsampledMs[i] = (t2 - t1) / 1e6;
+            }
+
+            double legacyMedian = median(legacyMs);
+            double subsampledMedian = median(subsampledMs);
+            legacyTotal += legacyMedian;
+            subsampledTotal += subsampledMedian;
+            System.out.printf("%-36s %8d %12.1f %12.1f %6s -> %-7s%n",
+                    file.getParentFile().getName() + "/" + file.getName(), file.length() / 1024,
+                    legacyMedian, subsampledMedian,
+                    shortPixels((long) source.width * source.height), shortPixels(decodedPixels));
+        }
+
+        System.out.printf("Total median: legacy %.1f ms, subsampled %.1f ms (%.1fx)%n",
+                legacyTotal, subsampledTotal, legacyTotal / subsampledTotal);
+    }
+
+    // What loadImageAndOptions used to do: full decode, then area-averaging scale realised through an ImageProducer
+    private static void legacy(URL url, int boxWidth, int boxHeight) {
+        ImageIcon full = new ImageIcon(url);
+        Dimension fit = ImageRenditionGenerator.fit(full.getIconWidth(), full.getIconHeight(), boxWidth, boxHeight);
+        Image scaled = full.getImage().getScaledInstance(fit.width, fit.height, Image.SCALE_SMOOTH);
+        new ImageIcon(scaled); // MediaTracker waits until the scaled pixels are produced
+        full.getImage().flush();
+    }
+
+    // Returns the number of pixels actually decoded
+    private static int subsampled(URL url, int boxWidth, int boxHeight) throws IOException {
+        BufferedImage decoded = ImageDecoder.decode(url, boxWidth, boxHeight);
+        Dimension fit = ImageRenditionGenerator.fit(decoded.getWidth(), decoded.getHeight(), boxWidth, boxHeight);
+        BufferedImage scaled = new BufferedImage(fit.width, fit.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = scaled.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(decoded, 0, 0, fit.width, fit.height, null);
+        g2.dispose();
+        return decoded.getWidth() * decoded.getHeight();
+    }
+
+    private static java.util.List<File> largest(File dir) {
+        File[] files = dir.listFiles((d, name) -> !name.startsWith("._") && name.toLowerCase().endsWith(".jpg"));
+        if (files == null) return Collections.emptyList();
+        Arrays.sort(files, Comparator.comparingLong(File::length).reversed());
+        return Arrays.asList(files).subList(0, Math.min(FILES_PER_FOLDER, files.length));
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String shortPixels(long pixels) {
+        return String.format("%.1fMP", pixels / 1e6);
+    }
+}
@@ -0,0 +1,114 @@
+package birdquiz;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Decodes images at roughly the size they will be shown at.
+ *
+ * The header is read first to get the source dimensions, then the reader is asked to
+ * skip pixels (source subsampling) so the decoded image is the smallest one that is
+ * still at least as large as the target. A 6000x4000 photo shown at 1620x1080 is
+ * decoded at 2000x1333 instead of at full size.
+ */
+public class ImageDecoder {
+
+    private ImageDecoder() {}
+
+    public static BufferedImage decode(URL url, int maxWidth, int maxHeight) throws IOException {
+        return decode(url, null, maxWidth, maxHeight);
+    }
+
+    /**
+     * Decodes only the given region of the source (null for the whole image),
+     * subsampled so that it still covers maxWidth x maxHeight.
+     */
+    public static BufferedImage decode(URL url, Rectangle region, int maxWidth, int maxHeight) throws IOException {
+        try (InputStream in = url.openStream()) {
+            return decode(in, url.toString(), region, maxWidth, maxHeight);
+        }
+    }
+
+    /** Decodes a resource through {@link ResourceLoader}, so content packs are read without copying. */
+    public static BufferedImage decode(String resourcePath, int maxWidth, int maxHeight) throws IOException {
+        return decode(ResourceLoader.openImage(resourcePath), resourcePath, null, maxWidth, maxHeight);
+    }
+
+    public static BufferedImage decode(InputStream in, String name, Rectangle region, int maxWidth, int maxHeight) throws IOException {
+        return decode(ImageIO.createImageInputStream(in), name, region, maxWidth, maxHeight);
+    }
+
+    /** Decodes from the stream and closes it. */
+    public static BufferedImage decode(ImageInputStream stream, String name, Rectangle region, int maxWidth, int maxHeight) throws IOException {
+        try (ImageInputStream iis = stream) {
+            if (iis == null) {
+                throw new IOException("Cannot open image stream: " + name);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for: " + name);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (region != null) {
+                    region = region.intersection(new Rectangle(0, 0, width, height));
+                    param.setSourceRegion(region);
+                    width = region.width;
+                    height = region.height;
+                }
+                int factor = subsampling(width, height, maxWidth, maxHeight);
+                if (factor > 1) {
+                    param.setSourceSubsampling(factor, factor, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Reads only the header. */
+    public static Dimension readSize(URL url) throws IOException {
+        if (url == null) throw new FileNotFoundException("Image URL is null");
+        try (InputStream in = url.openStream();
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for: " + url);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Largest integer step that keeps the subsampled image at least as big as the size
+     * the source would be scaled to when fitted into the box.
+     */
+    static int subsampling(int width, int height, int maxWidth, int maxHeight) {
+        if (maxWidth <= 0 || maxHeight <= 0) return 1;
+        double scale = Math.min((double) maxWidth / width, (double) maxHeight / height);
+        if (scale >= 1.0) return 1;
+        return Math.max(1, (int) Math.floor(1.0 / scale));
+    }
+}
@@ -0,0 +1,103 @@
+package birdquiz;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the image file names stored in the database to resource paths.
+ *
+ * Each name is looked up at most once: build-time renditions come from the
+ * {@link ImageRenditions} manifest, and originals are probed through the image folders
+ * the first time they are asked for. Both hits and misses are remembered, so a missing
+ * image costs one set of probes per JVM instead of one per appearance in a quiz.
+ */
+public class ImageIndex {
+    private static final String[] BASE_PATHS = {
+        "/images/",
+        "/images/songbirds/",
+        "/images/ducks/",
+        "/images/raptors/",
+        "/images/shorebirds/"
+    };
+
+    // Stands in for "probed, not found" since ConcurrentHashMap cannot hold null
+    private static final String NOT_FOUND = "";
+
+    private static ImageIndex instance;
+
+    private final ImageRenditions renditions;
+    private final Map<String, String> originals = new ConcurrentHashMap<>();
+    private final Set<String> reportedMissing = ConcurrentHashMap.newKeySet();
+
+    private ImageIndex(ImageRenditions renditions) {
+        this.renditions = renditions;
+    }
+
+    public static synchronized ImageIndex getInstance() {
+        if (instance == null) {
+            instance = new ImageIndex(ImageRenditions.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Resource path of the best image for the given display box: the closest rendition if
+     * there is one, otherwise the original. Returns null if the file cannot be found.
+     */
+    public String resolve(String fileName, int maxWidth, int maxHeight) {
+        if (fileName == null || fileName.isEmpty()) return null;
+        ImageRenditions.Rendition rendition = renditions.closest(fileName, maxWidth, maxHeight);
+        if (rendition != null && ResourceLoader.exists(rendition.getResourcePath())) {
+            return rendition.getResourcePath();
+        }
+        return resolveOriginal(fileName);
+    }
+
+    /** Resource path of the camera original, or null if it is not in a pack or on the classpath. */
+    public String resolveOriginal(String fileName) {
+        // An empty name would probe the image folders themselves
+        if (fileName == null || fileName.isEmpty()) return null;
+        String path = originals.computeIfAbsent(fileName, ImageIndex::probe);
+        return path.isEmpty() ? null : path;
+    }
+
+    /** True if {@link #resolve} finds the file, checked the same way: the rendition must exist too. */
+    public boolean isResolvable(String fileName) {
+        return resolve(fileName, 1, 1) != null;
+    }
+
+    /**
+     * Checks every name up front and prints the ones that cannot be resolved in a single
+     * block. Names already reported are not repeated. Returns the unresolvable names.
+     */
+    public java.util.List<String> reportMissing(String source, Collection<String> fileNames) {
+        java.util.List<String> missing = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(fileNames)) {
+            if (!isResolvable(name)) {
+                missing.add(name);
+            }
+        }
+        java.util.List<String> fresh = new ArrayList<>();
+        for (String name : missing) {
+            if (reportedMissing.add(source + "/" + name)) fresh.add(name);
+        }
+        if (!fresh.isEmpty()) {
+            StringBuilder sb = new StringBuilder("[IMAGE INDEX] " + fresh.size() + " image(s) in " + source + " cannot be found:");
+            for (String name : fresh) {
+                sb.append("\n    '").append(name).append("'");
+            }
+            System.err.println(sb);
+        }
+        return missing;
+    }
+
+    private static String probe(String fileName) {
+        for (String base : BASE_PATHS) {
+            String fullPath = base + fileName;
+            if (ResourceLoader.exists(fullPath)) {
+                return fullPath;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
@@ -0,0 +1,111 @@
+package birdquiz;
+
+import javax.swing.ImageIcon;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes and scales upcoming question images on a background thread so that
+ * nextQuestion() only has to swap in an icon that is already built.
+ *
+ * Every take() is counted as a hit (image was ready) or a miss (image had to be
+ * waited for or decoded on the calling thread).
+ */
+public class ImagePrefetcher {
+
+    /** Decodes an image and scales it to fit inside the given box. Must not touch Swing components. */
+    public interface Loader {
+        ImageIcon load(String imageLocation, int maxWidth, int maxHeight);
+    }
+
+    private final Loader loader;
+    private final ExecutorService worker;
+    private final Map<String, Future<ImageIcon>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ImagePrefetcher(Loader loader) {
+        this.loader = loader;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "image-prefetch");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /**
+     * Queues a background decode unless one for the same image and size is already pending.
+     * Does nothing after {@link #shutdown}.
+     */
+    public void prefetch(String imageLocation, int maxWidth, int maxHeight) {
+        if (imageLocation == null || maxWidth <= 0 || maxHeight <= 0 || worker.isShutdown()) return;
+        try {
+            pending.computeIfAbsent(key(imageLocation, maxWidth, maxHeight),
+                    k -> worker.submit(() -> loader.load(imageLocation, maxWidth, maxHeight)));
+        } catch (RejectedExecutionException ignore) {
+            // Shut down after the check; take() still decodes on the caller's thread
+        }
+    }
+
+    /**
+     * Returns the scaled image, using the prefetched result when there is one.
+     * Returns null if the image could not be loaded.
+     */
+    public ImageIcon take(String imageLocation, int maxWidth, int maxHeight) {
+        Future<ImageIcon> future = pending.remove(key(imageLocation, maxWidth, maxHeight));
+        if (future != null && future.isDone()) {
+            hits.incrementAndGet();
+            return await(future);
+        }
+
+        misses.incrementAndGet();
+        if (future != null) {
+            // Still decoding: wait for it rather than decoding the same file twice
+            return await(future);
+        }
+        return loader.load(imageLocation, maxWidth, maxHeight);
+    }
+
+    /** Drops queued work, e.g. when the question list is rebuilt. */
+    public void cancelAll() {
+        for (Future<ImageIcon> future : pending.values()) {
+            future.cancel(false);
+        }
+        pending.clear();
+    }
+
+    public void shutdown() {
+        cancelAll();
+        worker.shutdownNow();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public String stats() {
+        return "hits=" + hits.get() + ", misses=" + misses.get();
+    }
+
+    private static String key(String imageLocation, int maxWidth, int maxHeight) {
+        return imageLocation + "@" + maxWidth + "x" + maxHeight;
+    }
+
+    private static ImageIcon await(Future<ImageIcon> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package birdquiz;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.imageio.*;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Build-time tool that turns the camera-original bird photos into display-sized renditions.
+ *
+ * Run by the exec-maven-plugin during the compile phase:
+ *   java birdquiz.ImageRenditionGenerator src/main/resources/images target/classes/renditions
+ *
+ * For every image under the source folder it writes one JPEG per entry in {@link #SIZES}
+ * to <out>/<size>/<category>/<file>, plus a tab-separated manifest.tsv listing file,
+ * size name, width and height. {@link ImageRenditions} reads that manifest at runtime.
+ * Nothing is upscaled: the first size a photo does not fill gets a copy at the photo's
+ * own size, and the larger sizes are left out for that photo.
+ *
+ * Outputs newer than their source are left alone, so only changed photos are re-encoded.
+ * -Drenditions.sizes picks the sizes built (and shipped in the jar), by default
+ * {@link #DEFAULT_SIZES}; add 1440p,2160p for larger screens. -Drenditions.skip=true
+ * skips the step, and the build then ships the originals instead.
+ */
+public class ImageRenditionGenerator {
+
+    static final String MANIFEST_NAME = "manifest.tsv";
+    static final String DEFAULT_SIZES = "thumb,1080p";
+    private static final float JPEG_QUALITY = 0.85f;
+
+    /** Size name, bounding width, bounding height. */
+    static final Object[][] SIZES = {
+        {"thumb", 320, 240},
+        {"1080p", 1920, 1080},
+        {"1440p", 2560, 1440},
+        {"2160p", 3840, 2160},
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (Boolean.getBoolean("renditions.skip")) {
+            System.out.println("[RENDITIONS] Skipped (renditions.skip=true)");
+            return;
+        }
+        Path sourceDir = Paths.get(args.length > 0 ? args[0] : "src/main/resources/images");
+        Path outputDir = Paths.get(args.length > 1 ? args[1] : "target/classes/renditions");
+        Set<String> wantedSizes = new HashSet<>(Arrays.asList(
+                System.getProperty("renditions.sizes", DEFAULT_SIZES).split("\\s*,\\s*")));
+
+        if (!Files.isDirectory(sourceDir)) {
+            System.out.println("[RENDITIONS] No source images at " + sourceDir);
+            return;
+        }
+
+        java.util.List<Path> sources;
+        try (Stream<Path> walk = Files.walk(sourceDir)) {
+            sources = walk.filter(Files::isRegularFile)
+                    .filter(ImageRenditionGenerator::isImage)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        long start = System.nanoTime();
+        int written = 0;
+        long sourceBytes = 0, outputBytes = 0;
+        java.util.List<String> manifest = new ArrayList<>();
+
+        for (Path source : sources) {
+            String relative = sourceDir.relativize(source).toString().replace(File.separatorChar, '/');
+            sourceBytes += Files.size(source);
+
+            Dimension sourceSize = readSize(source);
+            if (sourceSize == null) {
+                System.out.println("[RENDITIONS] Unreadable image, skipped: " + relative);
+                continue;
+            }
+            BufferedImage original = null;
+            boolean full = false;
+            for (Object[] size : SIZES) {
+                String sizeName = (String) size[0];
+                if (!wantedSizes.contains(sizeName)) continue;
+                Path target = outputDir.resolve(sizeName).resolve(relative);
+                // One copy at the source's own size is enough; larger sizes would be the same image again
+                if (full) {
+                    Files.deleteIfExists(target);
+                    continue;
+                }
+                Dimension fit = fit(sourceSize.width, sourceSize.height, (int) size[1], (int) size[2]);
+                full = fit.equals(sourceSize);
+
+                if (!isUpToDate(source, target)) {
+                    if (original == null) {
+                        original = ImageIO.read(source.toFile());
+                        if (original == null) {
+                            System.out.println("[RENDITIONS] Unreadable image, skipped: " + relative);
+                            break;
+                        }
+                    }
+                    Files.createDirectories(target.getParent());
+                    write(ImageScaler.scale(original, fit.width, fit.height, BufferedImage.TYPE_INT_RGB), target);
+                    written++;
+                }
+
+                Dimension actual = readSize(target);
+                if (actual != null) {
+                    manifest.add(relative + "\t" + sizeName + "\t" + actual.width + "\t" + actual.height);
+                    outputBytes += Files.size(target);
+                }
+            }
+        }
+
+        // Sizes built by an earlier run with other -Drenditions.sizes would still end up in the jar
+        for (Object[] size : SIZES) {
+            Path dir = outputDir.resolve((String) size[0]);
+            if (wantedSizes.contains(size[0]) || !Files.isDirectory(dir)) continue;
+            try (Stream<Path> walk = Files.walk(dir)) {
+                for (Path path : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(path);
+                }
+            }
+        }
+
+        Files.createDirectories(outputDir);
+        Files.write(outputDir.resolve(MANIFEST_NAME), manifest, StandardCharsets.UTF_8);
+
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[RENDITIONS] " + sources.size() + " images, " + written + " renditions written in " + ms + " ms ("
+                + (sourceBytes / 1024) + " KB originals -> " + (outputBytes / 1024) + " KB renditions)");
+    }
+
+    /** Largest size with the source's aspect ratio that fits the box, never larger than the source. */
+    static Dimension fit(int width, int height, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, Math.min((double) maxWidth / width, (double) maxHeight / height));
+        return new Dimension(Math.max(1, (int) Math.round(width * scale)), Math.max(1, (int) Math.round(height * scale)));
+    }
+
+    private static void write(BufferedImage image, Path target) throws IOException {
+        String name = target.getFileName().toString().toLowerCase();
+        if (name.endsWith(".png")) {
+            ImageIO.write(image, "png", target.toFile());
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        Files.deleteIfExists(target);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static Dimension readSize(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        try (javax.imageio.stream.ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static boolean isUpToDate(Path source, Path target) throws IOException {
+        return Files.exists(target)
+                && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) >= 0;
+    }
+
+    private static boolean isImage(Path path) {
+        String name = path.getFileName().toString();
+        String lower = name.toLowerCase();
+        // ._foo.jpg files are macOS resource forks, not images
+        return !name.startsWith("._") && (lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".png"));
+    }
+}
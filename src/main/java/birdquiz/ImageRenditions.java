@@ -0,0 +1,123 @@
+package birdquiz;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Runtime view of the renditions produced by {@link ImageRenditionGenerator}.
+ *
+ * Given the file name stored in the database and the box the photo has to fit into,
+ * picks the smallest pre-scaled rendition that still covers the box, so the quiz
+ * never has to decode a camera original.
+ */
+public class ImageRenditions {
+    private static final String ROOT = "/renditions/";
+
+    private static ImageRenditions instance;
+
+    /** One pre-scaled copy of a source image. */
+    public static class Rendition {
+        private final String resourcePath;
+        private final String sizeName;
+        private final int width;
+        private final int height;
+
+        Rendition(String resourcePath, String sizeName, int width, int height) {
+            this.resourcePath = resourcePath;
+            this.sizeName = sizeName;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getResourcePath() {
+            return resourcePath;
+        }
+
+        public String getSizeName() {
+            return sizeName;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    // Keyed by bare file name, as stored in male_image_location
+    private final Map<String, java.util.List<Rendition>> byFileName = new HashMap<>();
+    // Image folder (songbirds, ducks, ...) -> file names in it
+    private final Map<String, Set<String>> byFolder = new HashMap<>();
+
+    private ImageRenditions() {}
+
+    public static synchronized ImageRenditions getInstance() {
+        if (instance == null) {
+            instance = new ImageRenditions();
+            instance.load();
+        }
+        return instance;
+    }
+
+    private void load() {
+        try (InputStream in = ResourceLoader.open(ROOT + ImageRenditionGenerator.MANIFEST_NAME)) {
+            if (in == null) {
+                System.out.println("[RENDITIONS] No manifest found, using original images");
+                return;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            int count = 0;
+            while ((line = reader.readLine()) != null) {
+                String[] cols = line.split("\t");
+                if (cols.length < 4) continue;
+                String relative = cols[0];
+                String fileName = relative.substring(relative.lastIndexOf('/') + 1);
+                Rendition rendition = new Rendition(ROOT + cols[1] + "/" + relative, cols[1],
+                        Integer.parseInt(cols[2]), Integer.parseInt(cols[3]));
+                byFileName.computeIfAbsent(fileName, k -> new ArrayList<>()).add(rendition);
+                int slash = relative.indexOf('/');
+                String folder = slash > 0 ? relative.substring(0, slash) : "";
+                byFolder.computeIfAbsent(folder, k -> new TreeSet<>()).add(fileName);
+                count++;
+            }
+            for (java.util.List<Rendition> list : byFileName.values()) {
+                list.sort(Comparator.comparingLong(r -> (long) r.width * r.height));
+            }
+            System.out.println("[RENDITIONS] Loaded " + count + " renditions for " + byFileName.size() + " images");
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Smallest rendition that fills the box without upscaling, or the largest one
+     * available if none is big enough. Returns null if the file has no renditions.
+     */
+    public Rendition closest(String fileName, int maxWidth, int maxHeight) {
+        java.util.List<Rendition> list = byFileName.get(fileName);
+        if (list == null || list.isEmpty()) return null;
+        for (Rendition r : list) {
+            if (r.width >= maxWidth || r.height >= maxHeight) {
+                return r;
+            }
+        }
+        return list.get(list.size() - 1);
+    }
+
+    /** File names of every image that was under images/&lt;folder&gt;/ at build time. */
+    public Set<String> fileNamesInFolder(String folder) {
+        Set<String> names = byFolder.get(folder);
+        return names == null ? Collections.emptySet() : Collections.unmodifiableSet(names);
+    }
+
+    public boolean isEmpty() {
+        return byFileName.isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package birdquiz;
+
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+/**
+ * Compares getScaledInstance(SCALE_SMOOTH) with {@link ImageScaler} on one decoded photo,
+ * at a few display sizes, measuring both the scale itself and repeated paints of the result.
+ *
+ * Usage: java birdquiz.ImageScaleBenchmark [imageFile]
+ * Defaults to src/main/resources/images/ducks/male_mallard.jpg.
+ */
+public class ImageScaleBenchmark {
+    private static final int[][] TARGETS = {{1512, 1008}, {1134, 756}, {640, 427}};
+    private static final int WARMUP = 3;
+    private static final int RUNS = 9;
+    private static final int PAINTS = 20;
+
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : "src/main/resources/images/ducks/male_mallard.jpg");
+        BufferedImage source = ImageIO.read(file);
+        if (source == null) {
+            System.out.println("Cannot read " + file.getAbsolutePath());
+            return;
+        }
+
+        System.out.println("=== Image scale benchmark: " + file.getName() + " " + source.getWidth() + "x" + source.getHeight() + " ===");
+        System.out.printf("%-12s %16s %16s %18s %18s%n", "target", "smooth ms", "scaler ms",
+                "smooth paint ms", "scaler paint ms");
+
+        for (int[] target : TARGETS) {
+            int w = target[0], h = target[1];
+            for (int i = 0; i < WARMUP; i++) {
+                smooth(source, w, h);
+                ImageScaler.scale(source, w, h);
+            }
+
+            double[] smoothMs = new double[RUNS];
+            double[] scalerMs = new double[RUNS];
+            Image smoothResult = null;
+            Image scalerResult = null;
+            for (int i = 0; i < RUNS; i++) {
+                long t0 = System.nanoTime();
+                smoothResult = smooth(source, w, h);
+                long t1 = System.nanoTime();
+                scalerResult = ImageScaler.scale(source, w, h);
+                long t2 = System.nanoTime();
+                smoothMs[i] = (t1 - t0) / 1e6;
+                scalerMs[i] = (t2 - t1) / 1e6;
+            }
+
+            System.out.printf("%-12s %16.1f %16.1f %18.2f %18.2f%n", w + "x" + h,
+                    median(smoothMs), median(scalerMs), paint(smoothResult, w, h), paint(scalerResult, w, h));
+        }
+    }
+
+    // The old path: lazily produced image, realised through MediaTracker like ImageIcon does
+    private static Image smooth(BufferedImage source, int w, int h) {
+        Image scaled = source.getScaledInstance(w, h, Image.SCALE_SMOOTH);
+        new ImageIcon(scaled);
+        return scaled;
+    }
+
+    // Average time for one paint of the image into a screen-sized back buffer
+    private static double paint(Image image, int w, int h) {
+        BufferedImage backBuffer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = backBuffer.createGraphics();
+        g2.drawImage(image, 0, 0, null);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < PAINTS; i++) {
+            g2.drawImage(image, 0, 0, null);
+        }
+        long t1 = System.nanoTime();
+        g2.dispose();
+        return (t1 - t0) / 1e6 / PAINTS;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,67 @@
+package birdquiz;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quiz tables held in memory, for running without a database and for load tests.
+ */
+public class InMemoryCatalogRepository implements CatalogRepository {
+    private final Map<String, List<BirdQuizGUI.Bird>> tables = new ConcurrentHashMap<>();
+
+    public void put(String table, List<BirdQuizGUI.Bird> birds) {
+        tables.put(table, Collections.unmodifiableList(new ArrayList<>(birds)));
+    }
+
+    @Override
+    public List<BirdQuizGUI.Bird> loadTable(String table) throws RepositoryException {
+        List<BirdQuizGUI.Bird> birds = tables.get(table);
+        if (birds == null) {
+            throw new RepositoryException("No table " + table + " in memory", null, false);
+        }
+        return birds;
+    }
+
+    /**
+     * One table per quiz category, built from the photos in the rendition manifest. Names
+     * come from the file names (male_wood_duck.jpg becomes "Male Wood Duck") and every
+     * bird in a table shares one category.
+     */
+    public static InMemoryCatalogRepository fromImages() {
+        InMemoryCatalogRepository repository = new InMemoryCatalogRepository();
+        for (String table : BirdCatalog.TABLES) {
+            List<BirdQuizGUI.Bird> birds = new ArrayList<>();
+            for (String file : new TreeSet<>(ImageRenditions.getInstance().fileNamesInFolder(CategoryWarmup.folderFor(table)))) {
+                birds.add(new BirdQuizGUI.Bird(displayName(file), file, table));
+            }
+            repository.put(table, birds);
+        }
+        return repository;
+    }
+
+    /** Generated tables of the given size, spread evenly over the given number of categories. */
+    public static InMemoryCatalogRepository synthetic(int birdsPerTable, int categories) {
+        InMemoryCatalogRepository repository = new InMemoryCatalogRepository();
+        for (String table : BirdCatalog.TABLES) {
+            List<BirdQuizGUI.Bird> birds = new ArrayList<>(birdsPerTable);
+            for (int i = 0; i < birdsPerTable; i++) {
+                birds.add(new BirdQuizGUI.Bird(table + " bird " + i, table + "_" + i + ".jpg",
+                        table + " category " + (i % Math.max(1, categories))));
+            }
+            repository.put(table, birds);
+        }
+        return repository;
+    }
+
+    static String displayName(String file) {
+        int dot = file.lastIndexOf('.');
+        String base = dot > 0 ? file.substring(0, dot) : file;
+        StringBuilder name = new StringBuilder();
+        for (String word : base.split("[_\\-\\s]+")) {
+            if (word.isEmpty()) continue;
+            if (name.length() > 0) name.append(' ');
+            name.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return name.toString();
+    }
+}
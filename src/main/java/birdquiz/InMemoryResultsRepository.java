@@ -0,0 +1,29 @@
+package birdquiz;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps stored results in memory, for running without a database and for measuring
+ * result throughput without one.
+ */
+public class InMemoryResultsRepository implements ResultsRepository {
+    private final Map<String, QuizResult> results = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void store(List<QuizResult> batch) {
+        for (QuizResult result : batch) {
+            results.putIfAbsent(result.getId(), result);
+        }
+    }
+
+    public synchronized List<QuizResult> getResults() {
+        return new ArrayList<>(results.values());
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+}
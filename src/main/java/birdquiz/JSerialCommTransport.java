@@ -0,0 +1,92 @@
+package birdquiz;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.fazecast.jSerialComm.SerialPortDataListener;
+import com.fazecast.jSerialComm.SerialPortEvent;
+
+/**
+ * A USB serial port at 115200 8N1 through jSerialComm. Reads go into one reused chunk,
+ * so receiving does not allocate.
+ */
+public class JSerialCommTransport implements SerialTransport {
+    private final SerialPort port;
+    private final byte[] chunk = new byte[256];
+
+    public JSerialCommTransport(SerialPort port) {
+        this.port = port;
+    }
+
+    /**
+     * Ports to try, in the order the system lists them, or only -Dbirdquiz.serial.port
+     * if it is set.
+     */
+    public static java.util.List<SerialTransport> available() {
+        java.util.List<SerialTransport> transports = new java.util.ArrayList<>();
+        String pinned = System.getProperty("birdquiz.serial.port");
+        if (pinned != null && !pinned.isEmpty()) {
+            transports.add(new JSerialCommTransport(SerialPort.getCommPort(pinned)));
+            return transports;
+        }
+        for (SerialPort port : SerialPort.getCommPorts()) {
+            transports.add(new JSerialCommTransport(port));
+        }
+        return transports;
+    }
+
+    @Override
+    public String getName() {
+        return port.getSystemPortName();
+    }
+
+    @Override
+    public boolean open(Receiver receiver) {
+        port.setBaudRate(115200);
+        port.setNumDataBits(8);
+        port.setNumStopBits(1);
+        port.setParity(SerialPort.NO_PARITY);
+        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 50, 0);
+        if (!port.openPort()) {
+            return false;
+        }
+        port.addDataListener(new SerialPortDataListener() {
+            @Override
+            public int getListeningEvents() {
+                return SerialPort.LISTENING_EVENT_DATA_AVAILABLE;
+            }
+
+            @Override
+            public void serialEvent(SerialPortEvent event) {
+                if (event.getEventType() != SerialPort.LISTENING_EVENT_DATA_AVAILABLE) return;
+                // bytesAvailable and readBytes return -1 once the port has gone away
+                int available;
+                while ((available = port.bytesAvailable()) > 0) {
+                    int n = port.readBytes(chunk, Math.min(available, chunk.length));
+                    if (n <= 0) {
+                        available = n;
+                        break;
+                    }
+                    receiver.onBytes(chunk, 0, n);
+                }
+                if (available < 0) {
+                    receiver.onDisconnected();
+                }
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public int write(byte[] data, int length) {
+        return port.writeBytes(data, length);
+    }
+
+    @Override
+    public void close() {
+        try {
+            port.removeDataListener();
+            if (port.isOpen()) {
+                port.closePort();
+            }
+        } catch (Exception ignore) {}
+    }
+}
@@ -0,0 +1,143 @@
+package birdquiz;
+
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+
+/**
+ * Times an ESP button press from the button to the pixels, stage by stage, into
+ * {@link Metrics} histograms (microseconds):
+ *
+ *   latency.serial.wire     press on the ESP to bytes read on the host (v2 frames only)
+ *   latency.serial.parse    bytes read to command framed
+ *   latency.&lt;screen&gt;.edt      command framed to its task running on the EDT
+ *   latency.&lt;screen&gt;.click    task start to doClick returned (listeners, sound, next question)
+ *   latency.&lt;screen&gt;.paint    doClick returned to the next paint of dirty regions
+ *   latency.&lt;screen&gt;.total    press (or bytes read, for ASCII) to that paint
+ *
+ * The ESP's millis() and the host clock are aligned on the fastest frame seen, so
+ * wire times are relative to the best case rather than absolute. The paint stage is
+ * timed by wrapping the Swing RepaintManager the first time a trace reaches the EDT.
+ */
+public class LatencyTracer {
+    // A new ESP clock if frames suddenly look this much slower: the board was reset
+    private static final long CLOCK_RESET_MS = 5000;
+
+    private static final Metrics metrics = Metrics.getInstance();
+    // Traces whose click has run and which wait for the next paint; EDT only
+    private static final java.util.List<Trace> awaitingPaint = new ArrayList<>();
+    private static boolean paintHookInstalled = false;
+
+    // Smallest host-minus-ESP millis difference seen, the link's best-case delay
+    private static long espClockOffset = Long.MAX_VALUE;
+
+    private LatencyTracer() {}
+
+    /** One press on its way to the screen. */
+    public static final class Trace {
+        private final long origin;
+        private String screen;
+        private long stageStart;
+
+        private Trace(long origin, long stageStart) {
+            this.origin = origin;
+            this.stageStart = stageStart;
+        }
+
+        /** The press's task has started on the EDT of the given screen ("quiz", "menu", "load"). */
+        public void onEdt(String screen) {
+            this.screen = screen;
+            stage("edt");
+            // Before the click, so its repaint goes through the hook
+            installPaintHook();
+        }
+
+        /** doClick has returned; the paint stage ends at the next repaint. */
+        public void clicked() {
+            if (screen == null || !SwingUtilities.isEventDispatchThread()) return;
+            stage("click");
+            awaitingPaint.add(this);
+        }
+
+        private void painted(long now) {
+            metrics.histogram("latency." + screen + ".paint").record((now - stageStart) / 1000);
+            metrics.histogram("latency." + screen + ".total").record((now - origin) / 1000);
+        }
+
+        private void stage(String name) {
+            long now = System.nanoTime();
+            metrics.histogram("latency." + screen + "." + name).record((now - stageStart) / 1000);
+            stageStart = now;
+        }
+    }
+
+    /**
+     * Starts a trace for a command framed just now from bytes read at receivedNanos.
+     * espMillis is the ESP's millis() at the press, or -1 if the link does not send it.
+     */
+    public static Trace framed(long receivedNanos, long espMillis) {
+        long now = System.nanoTime();
+        long origin = receivedNanos;
+        if (espMillis >= 0) {
+            long wireMicros = wireMicros(receivedNanos, espMillis);
+            metrics.histogram("latency.serial.wire").record(wireMicros);
+            origin -= wireMicros * 1000;
+        }
+        metrics.histogram("latency.serial.parse").record((now - receivedNanos) / 1000);
+        return new Trace(origin, now);
+    }
+
+    /** Forgets the ESP clock alignment, for a new link or a reset board. */
+    public static synchronized void resetEspClock() {
+        espClockOffset = Long.MAX_VALUE;
+    }
+
+    private static synchronized long wireMicros(long receivedNanos, long espMillis) {
+        long offset = receivedNanos / 1_000_000 - espMillis;
+        if (offset < espClockOffset || offset - espClockOffset > CLOCK_RESET_MS) {
+            espClockOffset = offset;
+        }
+        return (offset - espClockOffset) * 1000;
+    }
+
+    /** p50/p99 of every stage recorded so far, grouped by screen. */
+    public static String report() {
+        StringBuilder out = new StringBuilder();
+        appendStages(out, "serial", "wire", "parse");
+        appendStages(out, "menu", "edt", "click", "paint", "total");
+        appendStages(out, "quiz", "edt", "click", "paint", "total");
+        appendStages(out, "load", "edt", "click", "paint", "total");
+        return out.length() == 0 ? "no presses traced" : out.toString();
+    }
+
+    private static void appendStages(StringBuilder out, String screen, String... stages) {
+        StringBuilder line = new StringBuilder();
+        for (String stage : stages) {
+            // Looked up, not created, so the report leaves no empty histograms in the metrics dump
+            Metrics.Histogram histogram = metrics.findHistogram("latency." + screen + "." + stage);
+            if (histogram == null || histogram.getCount() == 0) continue;
+            line.append(' ').append(stage).append(" p50<=").append(histogram.percentile(50))
+                .append("us p99<=").append(histogram.percentile(99)).append("us");
+        }
+        if (line.length() == 0) return;
+        if (out.length() > 0) out.append(" |");
+        out.append(' ').append(screen).append(':').append(line);
+    }
+
+    private static void installPaintHook() {
+        if (paintHookInstalled || !SwingUtilities.isEventDispatchThread()) return;
+        paintHookInstalled = true;
+        RepaintManager.setCurrentManager(new RepaintManager() {
+            @Override
+            public void paintDirtyRegions() {
+                super.paintDirtyRegions();
+                if (awaitingPaint.isEmpty()) return;
+                long now = System.nanoTime();
+                for (Trace trace : awaitingPaint) {
+                    trace.painted(now);
+                }
+                awaitingPaint.clear();
+            }
+        });
+    }
+}
@@ -4,7 +4,6 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import com.fazecast.jSerialComm.SerialPort;
 
 public class MainMenu extends JFrame implements ActionListener {
 
@@ -13,11 +12,25 @@ public class MainMenu extends JFrame implements ActionListener {
     private JButton raptorsBtn;   // yellow
     private JButton shorebirdsBtn; // white
 
-    private SerialPort serialPort;
-    private final StringBuilder serialBuf = new StringBuilder();
-    private String connectedPortName = "none";
+    private final SerialSession.Subscriber serialSubscriber = new SerialSession.Subscriber() {
+        @Override public void onCommand(int command) {
+            handleEspCommand(command, null);
+        }
+        @Override public void onCommand(int command, LatencyTracer.Trace trace) {
+            handleEspCommand(command, trace);
+        }
+        @Override public void onStatus(String status) {
+            SwingUtilities.invokeLater(() -> statusLabel.setText(status));
+        }
+    };
 
     private JLabel statusLabel;
+    private JLabel readinessLabel;
+    // A quiz is waiting for its table to load; further presses are ignored
+    private boolean opening = false;
+
+    // The quiz's Menu button builds a new MainMenu; process-wide startup work runs only for the first
+    private static boolean servicesStarted = false;
 
     public MainMenu() {
         setTitle("Bird Quiz - Main Menu");
@@ -30,9 +43,9 @@ public class MainMenu extends JFrame implements ActionListener {
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(20, 20, 20, 20);
 
-        songbirdsBtn = makeCircleButton("Songbirds", new Color(35,116,232)); // blue
-        ducksBtn     = makeCircleButton("Ducks",     new Color(35,166,92));  // green
-        raptorsBtn   = makeCircleButton("Raptors",   new Color(236,202,49)); // yellow
+        songbirdsBtn = makeCircleButton("Songbirds", new Color(35,116,232), "blue.png");   // blue
+        ducksBtn     = makeCircleButton("Ducks",     new Color(35,166,92),  "green.png");  // green
+        raptorsBtn   = makeCircleButton("Raptors",   new Color(236,202,49), "yellow.png"); // yellow
 
         gbc.gridx = 0; gbc.gridy = 0; center.add(songbirdsBtn, gbc);
         gbc.gridx = 1; gbc.gridy = 0; center.add(ducksBtn, gbc);
@@ -52,180 +65,192 @@ public class MainMenu extends JFrame implements ActionListener {
 
         statusLabel = new JLabel("Serial: none", SwingConstants.RIGHT);
         statusLabel.setBorder(new EmptyBorder(0, 12, 12, 12));
-        add(statusLabel, BorderLayout.SOUTH);
+        readinessLabel = new JLabel("", SwingConstants.LEFT);
+        readinessLabel.setBorder(new EmptyBorder(0, 12, 12, 12));
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(readinessLabel, BorderLayout.WEST);
+        south.add(statusLabel, BorderLayout.EAST);
+        add(south, BorderLayout.SOUTH);
 
         songbirdsBtn.addActionListener(this);
         ducksBtn.addActionListener(this);
         raptorsBtn.addActionListener(this);
         shorebirdsBtn.addActionListener(this);
 
-        autoConnectSerial();
-
-        // Ensure serial closes if window is closed directly
-        addWindowListener(new WindowAdapter() {
-            @Override public void windowClosed(WindowEvent e) {
-                closeSerial();
-            }
-            @Override public void windowClosing(WindowEvent e) {
-                closeSerial();
+        // Start decoding a category's images as soon as the player reaches for it
+        MouseAdapter hoverWarmup = new MouseAdapter() {
+            @Override public void mouseEntered(MouseEvent e) {
+                startWarmup(tableFor(e.getSource()));
             }
-        });
-
-        setVisible(true);
-    }
-
-    // --- circle button look ---
-    private JButton makeCircleButton(String text, Color fill) {
-        return new CircleButton(text, fill);
-    }
-
-    // --- open first available serial @115200 and listen for tokens ---
-    private void autoConnectSerial() {
-        SerialPort[] ports = SerialPort.getCommPorts();
-        if (ports.length == 0) {
-            System.out.println("[MENU] No serial ports found.");
-            statusLabel.setText("Serial: none (no ports)");
-            return;
+        };
+        songbirdsBtn.addMouseListener(hoverWarmup);
+        ducksBtn.addMouseListener(hoverWarmup);
+        raptorsBtn.addMouseListener(hoverWarmup);
+        shorebirdsBtn.addMouseListener(hoverWarmup);
+        if (CategoryWarmup.getLastUsedTable() != null) {
+            startWarmup(CategoryWarmup.getLastUsedTable());
         }
+        startServices();
 
-        for (SerialPort p : ports) {
-            try {
-                System.out.println("[MENU] Trying " + p.getSystemPortName());
-                p.setBaudRate(115200);
-                p.setNumDataBits(8);
-                p.setNumStopBits(1);
-                p.setParity(SerialPort.NO_PARITY);
-                p.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 50, 0);
-
-                if (!p.openPort()) {
-                    System.out.println("[MENU] Failed to open " + p.getSystemPortName());
-                    continue;
-                }
-
-                serialPort = p;
-                connectedPortName = serialPort.getSystemPortName();
-                statusLabel.setText("Serial: " + connectedPortName);
-                System.out.println("[MENU] Opened " + connectedPortName);
+        // The port stays open across windows; the session closes it when the process exits
+        SerialSession.getInstance().subscribe(serialSubscriber);
 
-                attachSerialListener(serialPort);
-                return; // use first that opens
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                if (p.isOpen()) p.closePort();
-            }
-        }
-        statusLabel.setText("Serial: none (open failed)");
+        setVisible(true);
     }
 
-    private void attachSerialListener(SerialPort port) {
-        port.addDataListener(new com.fazecast.jSerialComm.SerialPortDataListener() {
-            @Override public int getListeningEvents() {
-                return SerialPort.LISTENING_EVENT_DATA_AVAILABLE;
-            }
-            @Override public void serialEvent(com.fazecast.jSerialComm.SerialPortEvent event) {
-                if (event.getEventType() == SerialPort.LISTENING_EVENT_DATA_AVAILABLE) {
-                    try {
-                        byte[] buf = new byte[port.bytesAvailable()];
-                        int n = port.readBytes(buf, buf.length);
-                        if (n > 0) {
-                            serialBuf.append(new String(buf, 0, n));
-                            processSerialBuffer();
-                        }
-                    } catch (Exception ex) {
-                        ex.printStackTrace();
-                    }
+    private static synchronized void startServices() {
+        if (servicesStarted) return;
+        servicesStarted = true;
+        // Keep every category's photos in memory (encoded) so play never reads the jar or disk
+        BirdCatalog.getInstance().start();
+        // Starts the result writer, which replays results journaled while MySQL was unreachable
+        ResultWriter.getInstance();
+        CategoryWarmup.storeCategories(BirdCatalog.TABLES);
+
+        // Decode the shared button art and sounds before the first quiz asks for them
+        Thread buttonPreload = new Thread(() -> {
+            ButtonIcons.preload();
+            // The circle buttons paint their plain fill until the art is in
+            SwingUtilities.invokeLater(() -> {
+                for (Window window : Window.getWindows()) {
+                    if (window instanceof MainMenu) window.repaint();
                 }
-            }
-        });
+            });
+        }, "button-preload");
+        buttonPreload.setDaemon(true);
+        buttonPreload.start();
+        Thread soundPreload = new Thread(SoundUtil::preload, "sound-preload");
+        soundPreload.setDaemon(true);
+        soundPreload.start();
     }
 
-    private void processSerialBuffer() {
-        int nl;
-        while ((nl = serialBuf.indexOf("\n")) >= 0) {
-            String line = serialBuf.substring(0, nl).trim().toLowerCase();
-            serialBuf.delete(0, nl + 1);
-            if (line.isEmpty()) continue;
-            if (line.startsWith("button pressed:") || line.startsWith("button released:")) continue;
-            handleEspCommand(line);
-        }
+    // --- circle button look ---
+    private JButton makeCircleButton(String text, Color fill, String art) {
+        return new CircleButton(text, fill, art);
     }
 
-    private void handleEspCommand(String token) {
-        switch (token) {
-            case "blue":
+    private void handleEspCommand(int command, LatencyTracer.Trace trace) {
+        switch (command) {
+            case SerialFramer.BLUE:
                 System.out.println("[MENU] ESP -> blue (Songbirds)");
-                SwingUtilities.invokeLater(() -> songbirdsBtn.doClick());
+                clickTraced(songbirdsBtn, trace);
                 break;
-            case "green":
+            case SerialFramer.GREEN:
                 System.out.println("[MENU] ESP -> green (Ducks)");
-                SwingUtilities.invokeLater(() -> ducksBtn.doClick());
+                clickTraced(ducksBtn, trace);
                 break;
-            case "yellow":
+            case SerialFramer.YELLOW:
                 System.out.println("[MENU] ESP -> yellow (Raptors)");
-                SwingUtilities.invokeLater(() -> raptorsBtn.doClick());
+                clickTraced(raptorsBtn, trace);
                 break;
-            case "submit":
+            case SerialFramer.SUBMIT:
                 System.out.println("[MENU] ESP -> submit (Shorebirds)");
-                SwingUtilities.invokeLater(() -> shorebirdsBtn.doClick());
+                clickTraced(shorebirdsBtn, trace);
                 break;
             default:
-                System.out.println("[MENU] ESP unknown token: " + token);
+                System.out.println("[MENU] ESP unknown command: " + command);
         }
     }
 
-    private void closeSerial() {
-        try {
-            if (serialPort != null) {
-                // remove listener to be safe
-                serialPort.removeDataListener();
-                if (serialPort.isOpen()) {
-                    System.out.println("[MENU] Closing " + serialPort.getSystemPortName());
-                    serialPort.closePort();
-                }
-            }
-        } catch (Exception ignore) {}
+    // The click opens the quiz, so menu click times include building its first screen
+    private void clickTraced(JButton button, LatencyTracer.Trace trace) {
+        SwingUtilities.invokeLater(() -> {
+            if (trace != null) trace.onEdt("menu");
+            button.doClick();
+            if (trace != null) trace.clicked();
+        });
+    }
+
+    @Override
+    public void dispose() {
+        SerialSession.getInstance().unsubscribe(serialSubscriber);
+        super.dispose();
+    }
+
+    // --- category warm-up: decode the table's images in the background, show readiness ---
+    private void startWarmup(String table) {
+        if (table == null) return;
+        CategoryWarmup.warm(table, (t, done, total) -> SwingUtilities.invokeLater(() ->
+                readinessLabel.setText(done >= total
+                        ? "Images: " + t + " ready"
+                        : "Images: loading " + t + " " + done + "/" + total)));
+    }
+
+    private String tableFor(Object src) {
+        if (src == songbirdsBtn)  return "songbirds";
+        if (src == ducksBtn)      return "ducks";
+        if (src == raptorsBtn)    return "raptors";
+        if (src == shorebirdsBtn) return "shore_birds";
+        return null;
     }
 
-    // --- click handling: play category sound, close serial, launch quiz ---
+    // --- click handling: play category sound, launch quiz ---
     @Override
     public void actionPerformed(ActionEvent e) {
         Object src = e.getSource();
-        String table = null;
+        String table = tableFor(src);
         String sound = null;
 
-        if (src == songbirdsBtn)      { table = "songbirds";  sound = "songbirds.wav"; }
-        else if (src == ducksBtn)     { table = "ducks";      sound = "ducks.wav"; }
-        else if (src == raptorsBtn)   { table = "raptors";    sound = "raptors.wav"; }
-        else if (src == shorebirdsBtn){ table = "shore_birds"; sound = "shorebirds.wav"; } // add file if you have it
+        if (src == songbirdsBtn)      { sound = "songbirds.wav"; }
+        else if (src == ducksBtn)     { sound = "ducks.wav"; }
+        else if (src == raptorsBtn)   { sound = "raptors.wav"; }
+        else if (src == shorebirdsBtn){ sound = "shorebirds.wav"; } // add file if you have it
+
+        if (table != null && !opening) {
+            CategoryWarmup.setLastUsedTable(table);
+            startWarmup(table);
 
-        if (table != null) {
             // play menu sound (non-blocking helper)
             try { if (sound != null) SoundUtil.playSound(sound); } catch (Exception ignore) {}
 
-            // CRITICAL: free the port so the quiz can open it
-            String portName = connectedPortName;
-            closeSerial();
-
-            try {
-                new BirdQuizGUI(table, portName, "", "").setVisible(true);
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Failed to open quiz: " + ex.getMessage(),
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                // If launching fails, try to re-open serial so menu still works
-                autoConnectSerial();
-                return;
+            // Normally in the catalog already; otherwise open the quiz once the table has loaded
+            java.util.concurrent.CompletableFuture<?> ready = BirdCatalog.getInstance().load(table);
+            if (ready.isDone() && !ready.isCompletedExceptionally()) {
+                openQuiz(table);
+            } else {
+                opening = true;
+                readinessLabel.setText("Loading " + table + "...");
+                // Runs on failure too, so the menu never stays stuck on "Loading"
+                ready.whenComplete((birds, error) -> SwingUtilities.invokeLater(() -> loaded(table, error)));
             }
-            dispose(); // close the menu
         }
     }
 
+    private void loaded(String table, Throwable error) {
+        opening = false;
+        readinessLabel.setText("");
+        if (error == null) {
+            openQuiz(table);
+            return;
+        }
+        Throwable cause = error instanceof java.util.concurrent.CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        cause.printStackTrace();
+        JOptionPane.showMessageDialog(this, "Failed to load " + table + ": " + cause.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void openQuiz(String table) {
+        try {
+            // The quiz takes over serial input as it subscribes; the menu unsubscribes in dispose()
+            new BirdQuizGUI(table, "", "").setVisible(true);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Failed to open quiz: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        dispose(); // close the menu
+    }
+
     // --- circular painted button class ---
     private static class CircleButton extends JButton {
         private final Color fill;
-        CircleButton(String text, Color fill) {
+        private final String art;
+        CircleButton(String text, Color fill, String art) {
             super(text);
             this.fill = fill;
+            this.art = art;
             setPreferredSize(new Dimension(240, 240));
             setFont(new Font("Arial", Font.BOLD, 24));
             setForeground(Color.BLACK);
@@ -241,8 +266,17 @@ public class MainMenu extends JFrame implements ActionListener {
             int d = Math.min(getWidth(), getHeight());
             int x = (getWidth() - d) / 2;
             int y = (getHeight() - d) / 2;
-            g2.setColor(fill);
-            g2.fillOval(x, y, d, d);
+            // Arcade button art from the shared atlas, clipped to the circle; plain fill until it is loaded
+            Image artImage = ButtonIcons.preloadedImage(art, d);
+            if (artImage != null) {
+                Shape clip = g2.getClip();
+                g2.clip(new java.awt.geom.Ellipse2D.Float(x, y, d, d));
+                g2.drawImage(artImage, x, y, null);
+                g2.setClip(clip);
+            } else {
+                g2.setColor(fill);
+                g2.fillOval(x, y, d, d);
+            }
             g2.setColor(getForeground());
             FontMetrics fm = g2.getFontMetrics(getFont());
             String text = getText();
@@ -0,0 +1,154 @@
+package birdquiz;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide counters, gauges and latency histograms, written to the log as one
+ * [METRICS] line per metric every -Dbirdquiz.metrics.intervalSec seconds (default 60,
+ * 0 to turn the dump off). Recording is lock-free so it can sit on hot paths.
+ */
+public class Metrics {
+    private static final long DEFAULT_INTERVAL_SEC = 60;
+
+    private static Metrics instance;
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    public static synchronized Metrics getInstance() {
+        if (instance == null) {
+            instance = new Metrics();
+            instance.startReporting(Long.getLong("birdquiz.metrics.intervalSec", DEFAULT_INTERVAL_SEC));
+        }
+        return instance;
+    }
+
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).add(delta);
+    }
+
+    public long count(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /** Registers a value that is read at dump time; a later registration replaces it. */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /** The named histogram if anything has created it, otherwise null; never registers one. */
+    public Histogram findHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /** Records the time since startNanos (a System.nanoTime value) in the named histogram. */
+    public void recordSince(String name, long startNanos) {
+        histogram(name).record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    public synchronized void startReporting(long intervalSec) {
+        if (reporter != null || intervalSec <= 0) return;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(this::dump, intervalSec, intervalSec, TimeUnit.SECONDS);
+    }
+
+    public void dump() {
+        for (Map.Entry<String, Long> entry : new TreeMap<>(snapshotCounters()).entrySet()) {
+            System.out.println("[METRICS] " + entry.getKey() + " = " + entry.getValue());
+        }
+        for (Map.Entry<String, LongSupplier> entry : new TreeMap<>(gauges).entrySet()) {
+            long value;
+            try {
+                value = entry.getValue().getAsLong();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            System.out.println("[METRICS] " + entry.getKey() + " = " + value);
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            System.out.println("[METRICS] " + entry.getKey() + " " + entry.getValue());
+        }
+    }
+
+    private Map<String, Long> snapshotCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    /**
+     * Latency histogram in microseconds with power-of-two buckets, so percentiles are
+     * reported as the upper bound of the bucket they fall in (within a factor of two).
+     */
+    public static class Histogram {
+        private static final int BUCKETS = 32;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long micros) {
+            if (micros < 0) micros = 0;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.increment();
+            sum.add(micros);
+            max.accumulateAndGet(micros, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /** Upper bound in microseconds of the bucket holding the given percentile (0-100). */
+        public long percentile(double p) {
+            long total = count.sum();
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(total * p / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(i == 0 ? 0 : 1L << i, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public String toString() {
+            long n = count.sum();
+            return "count=" + n + " avg=" + (n == 0 ? 0 : sum.sum() / n) + "us p50<=" + percentile(50)
+                    + "us p99<=" + percentile(99) + "us max=" + max.get() + "us";
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package birdquiz;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads quiz tables from birds_db through the shared {@link ConnectionPool}.
+ */
+public class MySqlCatalogRepository implements CatalogRepository {
+
+    @Override
+    public List<BirdQuizGUI.Bird> loadTable(String table) throws RepositoryException {
+        List<BirdQuizGUI.Bird> birds = new ArrayList<>();
+        String sql = "SELECT name, male_image_location, category FROM " + table;
+        try (Connection connection = ConnectionPool.getInstance().getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                birds.add(new BirdQuizGUI.Bird(
+                    rs.getString("name"),
+                    rs.getString("male_image_location"),
+                    rs.getString("category")
+                ));
+            }
+        } catch (SQLException e) {
+            // A missing table (SQLState 42) will not appear by retrying
+            boolean retryable = e instanceof SQLTransientException || e.getSQLState() == null || !e.getSQLState().startsWith("42");
+            throw new RepositoryException("Cannot load " + table + ": " + e.getMessage(), e, retryable);
+        }
+        return birds;
+    }
+}
@@ -0,0 +1,106 @@
+package birdquiz;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.List;
+
+/**
+ * Stores results in quiz_results through the shared {@link ConnectionPool}: a score row
+ * and a summary row per result, inserted with addBatch/executeBatch in one transaction.
+ *
+ * Rows carry the result's UUID in result_uuid, which is unique, and a duplicate insert
+ * is ignored, so a replay of a row that did reach the database is harmless. Without
+ * db/migrations/001_quiz_results_result_uuid.sql applied, rows are written without it.
+ * If the summary row's columns are missing, as in db/birds_db.sql, summary rows are
+ * switched off and the score rows are written on their own.
+ */
+public class MySqlResultsRepository implements ResultsRepository {
+    // The per-category score row QuizScoreProcessor always wrote
+    static final String SCORE_SQL = "INSERT INTO quiz_results (first_name, email, quiz_name, ducks_average_score, raptors_average_score, songbirds_average_score, all_quizzes_average_score) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    static final String KEYED_SCORE_SQL = "INSERT INTO quiz_results (first_name, email, quiz_name, ducks_average_score, raptors_average_score, songbirds_average_score, all_quizzes_average_score, result_uuid) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE quiz_id = quiz_id";
+    // The summary row BirdQuizGUI.saveQuizResultToDatabase wrote
+    static final String SUMMARY_SQL = "INSERT INTO quiz_results (first_name, email, quiz_table, score, total_questions) VALUES (?, ?, ?, ?, ?)";
+    static final String KEYED_SUMMARY_SQL = "INSERT INTO quiz_results (first_name, email, quiz_table, score, total_questions, result_uuid) VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE quiz_id = quiz_id";
+    // The summary row shares the result's UUID, so it gets its own key
+    private static final String SUMMARY_KEY_SUFFIX = "/summary";
+
+    private volatile boolean summaryRows = true;
+    private volatile boolean keyedRows = true;
+
+    @Override
+    public void store(List<QuizResult> batch) throws RepositoryException {
+        try (Connection connection = ConnectionPool.getInstance().getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                writeScoreRows(connection, batch);
+                if (summaryRows) {
+                    writeSummaryRows(connection, batch);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Cannot store " + batch.size() + " quiz results: " + e.getMessage(), e, isRetryable(e));
+        }
+    }
+
+    private void writeScoreRows(Connection connection, List<QuizResult> batch) throws SQLException {
+        boolean keyed = keyedRows;
+        try (PreparedStatement scoreStmt = connection.prepareStatement(keyed ? KEYED_SCORE_SQL : SCORE_SQL)) {
+            for (QuizResult result : batch) {
+                QuizScoreProcessor.bindScoreRow(scoreStmt, result);
+                if (keyed) scoreStmt.setString(8, result.getId());
+                scoreStmt.addBatch();
+            }
+            scoreStmt.executeBatch();
+        } catch (SQLException e) {
+            if (!keyed || !isSchemaError(e)) throw e;
+            // No result_uuid column yet: store rows without it, replays may then duplicate them
+            keyedRows = false;
+            System.err.println("[RESULTS] quiz_results has no result_uuid, writing rows without idempotency keys"
+                    + " (apply db/migrations/001_quiz_results_result_uuid.sql): " + e.getMessage());
+            throw new SQLTransientException("Retrying without result_uuid", e);
+        }
+    }
+
+    private void writeSummaryRows(Connection connection, List<QuizResult> batch) throws SQLException {
+        boolean keyed = keyedRows;
+        try (PreparedStatement summaryStmt = connection.prepareStatement(keyed ? KEYED_SUMMARY_SQL : SUMMARY_SQL)) {
+            for (QuizResult result : batch) {
+                bindSummaryRow(summaryStmt, result);
+                if (keyed) summaryStmt.setString(6, result.getId() + SUMMARY_KEY_SUFFIX);
+                summaryStmt.addBatch();
+            }
+            summaryStmt.executeBatch();
+        } catch (SQLException e) {
+            if (!isSchemaError(e)) throw e;
+            // Older schema without quiz_table/score/total_questions: keep writing score rows only
+            summaryRows = false;
+            System.err.println("[RESULTS] Summary rows disabled, quiz_results does not accept them: " + e.getMessage());
+            throw new SQLTransientException("Retrying without summary rows", e);
+        }
+    }
+
+    private static boolean isSchemaError(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("42");
+    }
+
+    // Schema and constraint errors (SQLState 42 and 23) will fail again however often they are retried
+    private static boolean isRetryable(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientException
+                || state == null || !(state.startsWith("42") || state.startsWith("23"));
+    }
+
+    private static void bindSummaryRow(PreparedStatement stmt, QuizResult result) throws SQLException {
+        stmt.setString(1, result.getFirstName());
+        stmt.setString(2, result.getEmail());
+        stmt.setString(3, result.getQuizName());
+        stmt.setInt(4, result.getScore());
+        stmt.setInt(5, result.getTotalQuestions());
+    }
+}
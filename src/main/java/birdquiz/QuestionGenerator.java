@@ -0,0 +1,171 @@
+package birdquiz;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds quiz questions from one catalog table.
+ *
+ * Birds are indexed once into plain arrays: a name per bird, its category number, and
+ * for every category the bird indexes in it. A quiz then costs O(quiz length): correct
+ * answers come from a partial Fisher-Yates shuffle of a reusable index array, and the
+ * two wrong answers are sampled without replacement from the correct bird's category
+ * bucket, falling back to random birds from the whole table when the category is too
+ * small. Nothing is scanned or copied per question, however large the table.
+ */
+public class QuestionGenerator {
+    static final int OPTION_COUNT = 3;
+    // Random fallback picks before giving up on a bird whose table is nearly all duplicates
+    private static final int MAX_FALLBACK_TRIES = 32;
+
+    private final java.util.List<BirdQuizGUI.Bird> birds;
+    private final String[] names;
+    private final String[] imageLocations;
+    private final int[] categoryOf;
+    private final int[][] categoryMembers;
+    // Permutation of bird indexes, partially reshuffled by every quiz
+    private final int[] order;
+    // Scratch for sampleCategory; generate() is synchronized
+    private final int[] positions = new int[OPTION_COUNT - 1];
+
+    public QuestionGenerator(java.util.List<BirdQuizGUI.Bird> birds) {
+        this.birds = birds;
+        int n = birds.size();
+        names = new String[n];
+        imageLocations = new String[n];
+        categoryOf = new int[n];
+        order = new int[n];
+
+        Map<String, Integer> categories = new HashMap<>();
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            BirdQuizGUI.Bird bird = birds.get(i);
+            names[i] = bird.getName();
+            imageLocations[i] = bird.getImageLocation();
+            Integer category = categories.get(bird.getCategory());
+            if (category == null) {
+                category = categories.size();
+                categories.put(bird.getCategory(), category);
+            }
+            categoryOf[i] = category;
+            sizes[category]++;
+            order[i] = i;
+        }
+
+        categoryMembers = new int[categories.size()][];
+        for (int c = 0; c < categoryMembers.length; c++) {
+            categoryMembers[c] = new int[sizes[c]];
+            sizes[c] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int c = categoryOf[i];
+            categoryMembers[c][sizes[c]++] = i;
+        }
+    }
+
+    /** The list this generator was built from. */
+    public java.util.List<BirdQuizGUI.Bird> getBirds() {
+        return birds;
+    }
+
+    public java.util.List<BirdQuizGUI.Question> generate(int count) {
+        return generate(count, ThreadLocalRandom.current());
+    }
+
+    /** Up to count questions with distinct correct birds; fewer if the table is too small. */
+    public synchronized java.util.List<BirdQuizGUI.Question> generate(int count, Random random) {
+        int n = order.length;
+        java.util.List<BirdQuizGUI.Question> questions = new ArrayList<>(Math.min(count, n));
+        int[] picked = new int[OPTION_COUNT];
+
+        // Partial Fisher-Yates: order[0..i] is a fresh random sample after step i
+        for (int i = 0; i < n && questions.size() < count; i++) {
+            int j = i + random.nextInt(n - i);
+            int correct = order[j];
+            order[j] = order[i];
+            order[i] = correct;
+
+            picked[0] = correct;
+            int found = sampleCategory(correct, picked, random);
+            if (found < OPTION_COUNT) {
+                found = sampleAnywhere(picked, found, random);
+            }
+            if (found < OPTION_COUNT) {
+                continue;
+            }
+
+            String[] options = new String[OPTION_COUNT];
+            for (int k = 0; k < OPTION_COUNT; k++) {
+                options[k] = names[picked[k]];
+            }
+            shuffle(options, random);
+            questions.add(new BirdQuizGUI.Question(names[correct], imageLocations[correct], Arrays.asList(options)));
+        }
+        return questions;
+    }
+
+    /**
+     * Samples distinct-named birds from the correct bird's category into picked[1..],
+     * without replacement and without touching the rest of the bucket (Floyd's algorithm
+     * over the bucket minus the correct bird). Returns how many of picked are filled.
+     */
+    private int sampleCategory(int correct, int[] picked, Random random) {
+        int[] bucket = categoryMembers[categoryOf[correct]];
+        int others = bucket.length - 1;
+        int found = 1;
+        if (others <= 0) return found;
+
+        int wanted = Math.min(OPTION_COUNT - 1, others);
+        for (int s = 0, j = others - wanted; j < others; s++, j++) {
+            int t = random.nextInt(j + 1);
+            positions[s] = contains(positions, s, t) ? j : t;
+            // Positions index the bucket without the correct bird, whose slot stands in for the last one
+            int candidate = bucket[positions[s]];
+            if (candidate == correct) candidate = bucket[others];
+            if (!nameTaken(picked, found, candidate)) {
+                picked[found++] = candidate;
+            }
+        }
+        return found;
+    }
+
+    private int sampleAnywhere(int[] picked, int found, Random random) {
+        int n = names.length;
+        for (int tries = 0; found < OPTION_COUNT && tries < MAX_FALLBACK_TRIES; tries++) {
+            int candidate = random.nextInt(n);
+            if (!nameTaken(picked, found, candidate)) {
+                picked[found++] = candidate;
+            }
+        }
+        // Tiny or duplicate-heavy tables: take whatever distinct names are left
+        for (int candidate = 0; found < OPTION_COUNT && candidate < n; candidate++) {
+            if (!nameTaken(picked, found, candidate)) {
+                picked[found++] = candidate;
+            }
+        }
+        return found;
+    }
+
+    private boolean nameTaken(int[] picked, int found, int candidate) {
+        for (int k = 0; k < found; k++) {
+            if (picked[k] == candidate || Objects.equals(names[picked[k]], names[candidate])) return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int k = 0; k < count; k++) {
+            if (values[k] == value) return true;
+        }
+        return false;
+    }
+
+    private static void shuffle(String[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
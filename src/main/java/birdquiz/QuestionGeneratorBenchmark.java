@@ -0,0 +1,111 @@
+package birdquiz;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Compares the old per-question scan in fetchBirdQuestions with {@link QuestionGenerator}
+ * on synthetic catalogs of growing size, for a few quiz lengths. Reports time and bytes
+ * allocated per quiz; the generator's cost should track quiz length, not catalog size.
+ *
+ * Usage: java birdquiz.QuestionGeneratorBenchmark [categories]
+ * Defaults to 25 categories.
+ */
+public class QuestionGeneratorBenchmark {
+    private static final int[] CATALOG_SIZES = {100, 1000, 5000, 20000};
+    private static final int[] QUIZ_LENGTHS = {5, 50};
+    private static final long RUN_NANOS = 300_000_000L;
+
+    public static void main(String[] args) {
+        int categories = args.length > 0 ? Integer.parseInt(args[0]) : 25;
+        System.out.println("=== Question generator benchmark: " + categories + " categories ===");
+        System.out.printf("%-8s %-6s %14s %14s %14s %14s%n", "birds", "quiz",
+                "legacy us", "indexed us", "legacy KB", "indexed KB");
+
+        for (int size : CATALOG_SIZES) {
+            java.util.List<BirdQuizGUI.Bird> birds = catalog(size, categories);
+            QuestionGenerator generator = new QuestionGenerator(birds);
+            for (int length : QUIZ_LENGTHS) {
+                Random random = new Random(42);
+                double[] legacy = measure(() -> legacy(birds, length, random));
+                double[] indexed = measure(() -> generator.generate(length, random));
+                System.out.printf("%-8d %-6d %14.1f %14.1f %14.1f %14.1f%n", size, length,
+                        legacy[0], indexed[0], legacy[1] / 1024, indexed[1] / 1024);
+            }
+        }
+    }
+
+    // Microseconds and bytes allocated per call, after a warm-up of the same length
+    private static double[] measure(Runnable quiz) {
+        runFor(quiz, RUN_NANOS);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long calls = runFor(quiz, RUN_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        return new double[] {elapsed / 1000.0 / calls, (double) bytes / calls};
+    }
+
+    private static long runFor(Runnable quiz, long nanos) {
+        long end = System.nanoTime() + nanos;
+        long calls = 0;
+        while (System.nanoTime() < end) {
+            quiz.run();
+            calls++;
+        }
+        return calls;
+    }
+
+    private static java.util.List<BirdQuizGUI.Bird> catalog(int size, int categories) {
+        java.util.List<BirdQuizGUI.Bird> birds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            birds.add(new BirdQuizGUI.Bird("Bird " + i, "bird_" + i + ".jpg", "category " + (i % categories)));
+        }
+        return Collections.unmodifiableList(birds);
+    }
+
+    /** The question loop fetchBirdQuestions used before QuestionGenerator, minus the query. */
+    static java.util.List<BirdQuizGUI.Question> legacy(java.util.List<BirdQuizGUI.Bird> catalog, int maxQuestions, Random random) {
+        java.util.List<BirdQuizGUI.Question> questionsList = new ArrayList<>();
+        java.util.List<BirdQuizGUI.Bird> birds = new ArrayList<>(catalog);
+        Collections.shuffle(birds, random);
+
+        for (BirdQuizGUI.Bird bird : birds) {
+            if (questionsList.size() >= maxQuestions) break;
+
+            String correctName = bird.getName();
+            String category = bird.getCategory();
+
+            Set<String> optionsSet = new HashSet<>();
+            optionsSet.add(correctName);
+
+            java.util.List<BirdQuizGUI.Bird> categoryBirds = new ArrayList<>();
+            for (BirdQuizGUI.Bird b : birds) {
+                if (b.getCategory().equals(category) && !b.getName().equals(correctName)) {
+                    categoryBirds.add(b);
+                }
+            }
+            Collections.shuffle(categoryBirds, random);
+            for (BirdQuizGUI.Bird b : categoryBirds) {
+                if (optionsSet.size() >= 3) break;
+                optionsSet.add(b.getName());
+            }
+
+            for (BirdQuizGUI.Bird b : birds) {
+                if (optionsSet.size() >= 3) break;
+                if (!optionsSet.contains(b.getName()) && !b.getName().equals(correctName)) {
+                    optionsSet.add(b.getName());
+                }
+            }
+
+            if (optionsSet.size() == 3) {
+                java.util.List<String> optionsList = new ArrayList<>(optionsSet);
+                Collections.shuffle(optionsList, random);
+                questionsList.add(new BirdQuizGUI.Question(correctName, bird.getImageLocation(), optionsList));
+            }
+        }
+        return questionsList;
+    }
+}
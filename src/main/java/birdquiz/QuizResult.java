@@ -0,0 +1,65 @@
+package birdquiz;
+
+import java.util.UUID;
+
+/**
+ * One finished quiz, as written to quiz_results. The id is generated when the quiz ends
+ * and stays with the result through the journal and every retry, so the database can
+ * tell a replay from a new result.
+ */
+public class QuizResult {
+    private final String id;
+    private final long createdAt;
+    private final String firstName;
+    private final String email;
+    private final String quizName;
+    private final int score;
+    private final int totalQuestions;
+
+    public QuizResult(String firstName, String email, String quizName, int score, int totalQuestions) {
+        this(UUID.randomUUID().toString(), System.currentTimeMillis(), firstName, email, quizName, score, totalQuestions);
+    }
+
+    public QuizResult(String id, long createdAt, String firstName, String email, String quizName, int score, int totalQuestions) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.firstName = firstName;
+        this.email = email;
+        this.quizName = quizName;
+        this.score = score;
+        this.totalQuestions = totalQuestions;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getQuizName() {
+        return quizName;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    @Override
+    public String toString() {
+        return quizName + " " + score + "/" + totalQuestions + " for " + firstName;
+    }
+}
@@ -0,0 +1,71 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Picks the catalog and results backends from -Dbirdquiz.repository:
+ * "mysql" (default) uses birds_db through the {@link ConnectionPool}, "file" reads
+ * tables from and appends results to files in -Dbirdquiz.repository.dir (default
+ * "data"), and "memory" builds the catalog from the photos on disk and keeps results in
+ * memory, so the kiosk runs with no database at all.
+ */
+public class Repositories {
+    private static CatalogRepository catalog;
+    private static ResultsRepository results;
+
+    private Repositories() {}
+
+    public static synchronized CatalogRepository catalog() {
+        if (catalog == null) {
+            switch (backend()) {
+                case "memory":
+                    catalog = InMemoryCatalogRepository.fromImages();
+                    break;
+                case "file":
+                    catalog = new FileCatalogRepository(dir());
+                    break;
+                default:
+                    catalog = new MySqlCatalogRepository();
+            }
+            System.out.println("[REPOSITORY] Catalog from " + catalog.getClass().getSimpleName());
+        }
+        return catalog;
+    }
+
+    public static synchronized ResultsRepository results() {
+        if (results == null) {
+            switch (backend()) {
+                case "memory":
+                    results = new InMemoryResultsRepository();
+                    break;
+                case "file":
+                    try {
+                        results = new FileResultsRepository(dir());
+                    } catch (IOException e) {
+                        System.err.println("[REPOSITORY] Cannot use " + dir() + ", keeping results in memory: " + e.getMessage());
+                        results = new InMemoryResultsRepository();
+                    }
+                    break;
+                default:
+                    results = new MySqlResultsRepository();
+            }
+            System.out.println("[REPOSITORY] Results to " + results.getClass().getSimpleName());
+        }
+        return results;
+    }
+
+    /** Where {@link #catalog} reads tables from with the file backend. */
+    public static FileCatalogRepository offlineCatalog() {
+        return new FileCatalogRepository(dir());
+    }
+
+    private static String backend() {
+        return System.getProperty("birdquiz.repository", "mysql").trim().toLowerCase();
+    }
+
+    private static Path dir() {
+        return Paths.get(System.getProperty("birdquiz.repository.dir", "data"));
+    }
+}
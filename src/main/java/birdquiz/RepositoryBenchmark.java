@@ -0,0 +1,84 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Load run of the quiz's data path with no database: question generation from a
+ * synthetic {@link InMemoryCatalogRepository}, then a burst of finished quizzes through
+ * a {@link ResultWriter} with a real {@link ResultJournal} (in a temporary directory)
+ * into an {@link InMemoryResultsRepository}. Reports quizzes generated per second and
+ * results stored per second, with the journal fsync and store latencies.
+ *
+ * Usage: java birdquiz.RepositoryBenchmark [birdsPerTable] [results]
+ * Defaults to 5000 birds per table in 25 categories and 20000 results.
+ */
+public class RepositoryBenchmark {
+    private static final int CATEGORIES = 25;
+    private static final int QUIZ_LENGTH = 10;
+    private static final long RUN_NANOS = 1_000_000_000L;
+    private static final long STORE_TIMEOUT_MS = 60_000;
+
+    public static void main(String[] args) throws Exception {
+        int birdsPerTable = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int results = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        System.out.println("=== Repository benchmark: " + birdsPerTable + " birds per table, " + results + " results ===");
+
+        InMemoryCatalogRepository catalog = InMemoryCatalogRepository.synthetic(birdsPerTable, CATEGORIES);
+        for (String table : BirdCatalog.TABLES) {
+            QuestionGenerator generator = new QuestionGenerator(catalog.loadTable(table));
+            Random random = new Random(42);
+            long end = System.nanoTime() + RUN_NANOS;
+            long quizzes = 0;
+            while (System.nanoTime() < end) {
+                generator.generate(QUIZ_LENGTH, random);
+                quizzes++;
+            }
+            System.out.printf("questions %-12s %10.0f quizzes/s (%d questions each)%n", table,
+                    quizzes / (RUN_NANOS / 1e9), QUIZ_LENGTH);
+        }
+
+        Path journalDir = Files.createTempDirectory("birdquiz-journal");
+        try {
+            InMemoryResultsRepository store = new InMemoryResultsRepository();
+            // Queue sized for the whole burst: with no replays a deferred result would never be stored
+            ResultWriter writer = new ResultWriter(store, results, 8, new ResultJournal(journalDir), Long.MAX_VALUE);
+            writer.start();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < results; i++) {
+                writer.submit(new QuizResult("Load", "load@example.com", BirdCatalog.TABLES.get(i % BirdCatalog.TABLES.size()),
+                        i % 101, QUIZ_LENGTH));
+            }
+            long submitNanos = System.nanoTime() - start;
+            long deadline = System.currentTimeMillis() + STORE_TIMEOUT_MS;
+            while (store.size() < results && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Metrics metrics = Metrics.getInstance();
+            System.out.printf("results submitted %d in %.1f ms (%.2f us each)%n", results, submitNanos / 1e6,
+                    submitNanos / 1000.0 / results);
+            System.out.printf("results stored    %d in %.2f s (%.0f/s), deferred %d%n", store.size(), elapsedNanos / 1e9,
+                    store.size() / (elapsedNanos / 1e9), metrics.count("results.deferred"));
+            System.out.println("journal fsync     " + metrics.histogram("journal.fsync"));
+            System.out.println("results commit    " + metrics.histogram("results.commit"));
+        } finally {
+            deleteQuietly(journalDir);
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            System.err.println("[BENCH] Cannot delete " + dir + ": " + e.getMessage());
+        }
+    }
+}
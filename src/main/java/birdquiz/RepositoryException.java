@@ -0,0 +1,21 @@
+package birdquiz;
+
+/**
+ * A catalog or results repository could not complete a read or write. Retryable
+ * failures (connection loss, timeouts) are worth trying again later; the others
+ * (schema or constraint errors, unreadable files) are not.
+ */
+public class RepositoryException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean retryable;
+
+    public RepositoryException(String message, Throwable cause, boolean retryable) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
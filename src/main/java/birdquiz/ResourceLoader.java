@@ -0,0 +1,97 @@
+package birdquiz;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Single entry point for reading images, sounds and button art.
+ *
+ * Content packs in the folder named by -Dbirdquiz.packs (default "packs", relative to
+ * the working directory) are consulted first; anything not in a pack is read from the
+ * classpath as before. Paths are classpath-style, e.g. "/sounds/submit.wav".
+ */
+public class ResourceLoader {
+    private static final Map<String, ContentPack> byEntry = new ConcurrentHashMap<>();
+    private static final Map<String, Boolean> classpathExists = new ConcurrentHashMap<>();
+    private static volatile boolean loaded = false;
+
+    private ResourceLoader() {}
+
+    /** Maps every *.pack file in the pack folder. Safe to call more than once. */
+    public static synchronized void loadPacks() {
+        if (loaded) return;
+        loaded = true;
+        Path dir = Paths.get(System.getProperty("birdquiz.packs", "packs"));
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.pack")) {
+            for (Path file : files) {
+                try {
+                    ContentPack pack = ContentPack.open(file);
+                    for (ContentPack.Entry entry : pack.entries()) {
+                        byEntry.put(entry.getName(), pack);
+                    }
+                    System.out.println("[PACK] Mapped " + file + " (" + pack.entries().size() + " entries)");
+                } catch (IOException | RuntimeException e) {
+                    // One bad or half-copied pack must not take the others, or the classpath, with it
+                    System.err.println("[PACK] Ignoring " + file + ": " + e);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static boolean exists(String path) {
+        loadPacks();
+        if (byEntry.containsKey(path)) return true;
+        return classpathExists.computeIfAbsent(path, p -> ResourceLoader.class.getResource(p) != null);
+    }
+
+    /** Returns null if the resource does not exist. */
+    public static InputStream open(String path) {
+        loadPacks();
+        ContentPack pack = byEntry.get(path);
+        if (pack != null) {
+            return pack.openStream(path);
+        }
+        return ResourceLoader.class.getResourceAsStream(path);
+    }
+
+    public static InputStream openOrThrow(String path) throws IOException {
+        InputStream in = open(path);
+        if (in == null) {
+            throw new FileNotFoundException("Resource not found on classpath: " + path);
+        }
+        return in;
+    }
+
+    /** ImageIO stream for the resource; pack entries are read straight from the mapping. */
+    public static ImageInputStream openImage(String path) throws IOException {
+        loadPacks();
+        ContentPack pack = byEntry.get(path);
+        if (pack != null) {
+            return pack.openImageStream(path);
+        }
+        try (InputStream in = openOrThrow(path)) {
+            return new ContentPack.ByteBufferImageInputStream(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    /** Width and height recorded in the pack index, or null if the resource is not packed. */
+    public static java.awt.Dimension packedSize(String path) {
+        loadPacks();
+        ContentPack pack = byEntry.get(path);
+        if (pack == null) return null;
+        ContentPack.Entry entry = pack.entry(path);
+        return entry.getWidth() > 0 ? new java.awt.Dimension(entry.getWidth(), entry.getHeight()) : null;
+    }
+}
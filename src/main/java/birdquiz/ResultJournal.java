@@ -0,0 +1,299 @@
+package birdquiz;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of quiz results, so a result survives MySQL being down,
+ * a full write queue or a power cut.
+ *
+ * Every result is appended and fsynced, on the {@link ResultWriter}'s journal thread,
+ * before it is queued for the database; once the database has committed it an ack
+ * record is appended. Results appended together share one fsync, and so do appenders
+ * that arrive while an fsync is running, so a burst of results costs one fsync.
+ * Anything without an ack is pending and is replayed into quiz_results later; the
+ * result's UUID makes a replay of an already stored row a no-op.
+ *
+ * Records live in segment files (results-000001.log, ...) under -Dbirdquiz.journal.dir
+ * (default "journal"). A new segment is started at every launch and whenever the
+ * current one passes 1 MB. Closed segments are then compacted: one with nothing
+ * pending is deleted, and one that still has pending results has them copied into the
+ * current segment before it is deleted, so the journal only grows with what is
+ * actually waiting for the database.
+ *
+ * Record layout: int length, int CRC32 of the body, then the body: a type byte and,
+ * for results, UUID, created-at millis, first name, email, quiz, score and question
+ * count; for acks, the UUID. A torn or corrupt record ends the read of its segment.
+ */
+public class ResultJournal {
+    private static final String PREFIX = "results-";
+    private static final String SUFFIX = ".log";
+    private static final long SEGMENT_BYTES = 1024 * 1024;
+    private static final byte TYPE_RESULT = 1;
+    private static final byte TYPE_ACK = 2;
+
+    private static ResultJournal instance;
+
+    private final Path dir;
+    private final Metrics metrics = Metrics.getInstance();
+    private final Object syncLock = new Object();
+
+    private FileChannel current;
+    private int currentSeq;
+    private long segmentBytes = 0;
+    // Pending results carried into the current segment do not count towards rotating it again
+    private long carriedBytes = 0;
+    // Bytes appended since startup across all segments, and how many of them are fsynced
+    private long written = 0;
+    private volatile long synced = 0;
+
+    public ResultJournal(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        java.util.List<Integer> existing = segments();
+        openSegment(existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1);
+        compact();
+    }
+
+    /** The kiosk's journal, or null if the directory cannot be used. */
+    public static synchronized ResultJournal getInstance() {
+        if (instance == null) {
+            try {
+                instance = new ResultJournal(Paths.get(System.getProperty("birdquiz.journal.dir", "journal")));
+            } catch (IOException e) {
+                System.err.println("[JOURNAL] Disabled, cannot open journal: " + e.getMessage());
+            }
+        }
+        return instance;
+    }
+
+    /** Appends the results and returns once they are on disk. */
+    public void append(Collection<QuizResult> results) throws IOException {
+        long end = 0;
+        for (QuizResult result : results) {
+            end = write(encodeResult(result));
+        }
+        awaitDurable(end);
+        metrics.add("journal.appended", results.size());
+    }
+
+    /** Records that the results are in the database. Not fsynced: a lost ack only means a harmless replay. */
+    public void ack(Collection<QuizResult> results) throws IOException {
+        for (QuizResult result : results) {
+            write(encodeAck(result.getId()));
+        }
+    }
+
+    /** Results that have no ack, oldest first. */
+    public synchronized java.util.List<QuizResult> pending() throws IOException {
+        Map<String, QuizResult> pending = new LinkedHashMap<>();
+        for (int seq : segments()) {
+            readSegment(seq, pending);
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    private synchronized long write(ByteBuffer record) throws IOException {
+        if (segmentBytes - carriedBytes >= SEGMENT_BYTES) {
+            // Make what was written durable before its segment becomes eligible for compaction
+            current.force(false);
+            synced = written;
+            current.close();
+            openSegment(currentSeq + 1);
+            compact();
+        }
+        append(record);
+        return written;
+    }
+
+    // Group commit: whoever gets the lock fsyncs everything written so far for all waiters
+    private void awaitDurable(long position) throws IOException {
+        if (synced >= position) return;
+        synchronized (syncLock) {
+            if (synced >= position) return;
+            long target;
+            FileChannel channel;
+            synchronized (this) {
+                target = written;
+                channel = current;
+            }
+            long start = System.nanoTime();
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated meanwhile: the old segment was fsynced up to at least target before it was closed
+                if (synced < target) throw e;
+                return;
+            }
+            metrics.recordSince("journal.fsync", start);
+            if (target > synced) synced = target;
+        }
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+        while (record.hasRemaining()) {
+            int n = current.write(record);
+            segmentBytes += n;
+            written += n;
+        }
+    }
+
+    private void openSegment(int seq) throws IOException {
+        currentSeq = seq;
+        current = FileChannel.open(segmentPath(seq), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentBytes = current.size();
+        carriedBytes = segmentBytes;
+    }
+
+    /**
+     * Deletes closed segments with nothing pending and moves the pending results of the
+     * others into the current segment, which has just been started and is still empty.
+     */
+    private synchronized void compact() throws IOException {
+        Map<String, QuizResult> pending = new LinkedHashMap<>();
+        java.util.List<Integer> closed = new ArrayList<>();
+        for (int seq : segments()) {
+            readSegment(seq, pending);
+            if (seq != currentSeq) closed.add(seq);
+        }
+        if (closed.isEmpty()) return;
+
+        for (QuizResult result : pending.values()) {
+            append(encodeResult(result));
+        }
+        // The carried copies must be on disk before the originals go
+        current.force(false);
+        synced = written;
+        carriedBytes = segmentBytes;
+        for (int seq : closed) {
+            Files.deleteIfExists(segmentPath(seq));
+        }
+        metrics.increment("journal.compactions");
+        System.out.println("[JOURNAL] Compacted " + closed.size() + " segments, " + pending.size() + " results still pending");
+    }
+
+    private void readSegment(int seq, Map<String, QuizResult> pending) throws IOException {
+        Path path = segmentPath(seq);
+        if (!Files.exists(path)) return;
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= 8) {
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length <= 0 || length > data.remaining()) break;
+            ByteBuffer body = data.slice();
+            body.limit(length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                System.err.println("[JOURNAL] Corrupt record in " + path.getFileName() + ", ignoring the rest of it");
+                break;
+            }
+            data.position(data.position() + length);
+            try {
+                byte type = body.get();
+                if (type == TYPE_RESULT) {
+                    QuizResult result = decodeResult(body);
+                    pending.putIfAbsent(result.getId(), result);
+                } else if (type == TYPE_ACK) {
+                    pending.remove(getString(body));
+                }
+            } catch (EOFException e) {
+                break;
+            }
+        }
+    }
+
+    private java.util.List<Integer> segments() throws IOException {
+        java.util.List<Integer> seqs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    seqs.add(Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException ignore) {}
+            }
+        }
+        Collections.sort(seqs);
+        return seqs;
+    }
+
+    private Path segmentPath(int seq) {
+        return dir.resolve(String.format("%s%06d%s", PREFIX, seq, SUFFIX));
+    }
+
+    private static ByteBuffer encodeResult(QuizResult result) {
+        byte[][] strings = {
+            bytes(result.getId()), bytes(result.getFirstName()), bytes(result.getEmail()), bytes(result.getQuizName())
+        };
+        int size = 1 + 8 + 4 + 4;
+        for (byte[] s : strings) size += 2 + s.length;
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.put(TYPE_RESULT);
+        putString(body, strings[0]);
+        body.putLong(result.getCreatedAt());
+        putString(body, strings[1]);
+        putString(body, strings[2]);
+        putString(body, strings[3]);
+        body.putInt(result.getScore());
+        body.putInt(result.getTotalQuestions());
+        return frame(body);
+    }
+
+    private static ByteBuffer encodeAck(String id) {
+        byte[] bytes = bytes(id);
+        ByteBuffer body = ByteBuffer.allocate(1 + 2 + bytes.length);
+        body.put(TYPE_ACK);
+        putString(body, bytes);
+        return frame(body);
+    }
+
+    private static ByteBuffer frame(ByteBuffer body) {
+        body.flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(8 + body.remaining());
+        record.putInt(body.remaining());
+        record.putInt((int) crc.getValue());
+        record.put(body);
+        record.flip();
+        return record;
+    }
+
+    private static QuizResult decodeResult(ByteBuffer body) throws EOFException {
+        String id = getString(body);
+        if (body.remaining() < 8) throw new EOFException();
+        long createdAt = body.getLong();
+        String firstName = getString(body);
+        String email = getString(body);
+        String quizName = getString(body);
+        if (body.remaining() < 8) throw new EOFException();
+        return new QuizResult(id, createdAt, firstName, email, quizName, body.getInt(), body.getInt());
+    }
+
+    private static byte[] bytes(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) throws EOFException {
+        if (buffer.remaining() < 2) throw new EOFException();
+        int length = buffer.getShort() & 0xffff;
+        if (buffer.remaining() < length) throw new EOFException();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
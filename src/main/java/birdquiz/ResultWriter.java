@@ -0,0 +1,258 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes finished quizzes to the {@link ResultsRepository} (MySQL unless configured
+ * otherwise) on a background thread, so the final-score screen never waits for it.
+ *
+ * {@link #submit} only hands the result to the journal thread, which appends everything
+ * that has arrived to the {@link ResultJournal} with one fsync and then puts it on a
+ * bounded queue; the writer thread takes whatever has queued up (up to a batch), stores
+ * it in one call and acks it in the journal.
+ * A failed batch is retried with exponential backoff from 500 ms up to 30 s for
+ * -Dbirdquiz.results.maxAttempts attempts (default 8), then left in the journal. Every
+ * -Dbirdquiz.results.replaySec seconds (default 60) and at startup, journaled results
+ * that are neither acked nor queued are queued again, so results taken while MySQL was
+ * down reach it once it is back. A full queue (-Dbirdquiz.results.queue, default 256)
+ * only delays a journaled result until the next replay. Failures the repository marks
+ * as not retryable are left for the next replay without further attempts.
+ * Queue depth, commit latency and outcomes are reported through {@link Metrics}.
+ */
+public class ResultWriter implements Runnable {
+    private static final int BATCH_SIZE = 50;
+    private static final long FIRST_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long SHUTDOWN_DRAIN_MS = 3000;
+    private static final long DEFAULT_REPLAY_SEC = 60;
+
+    private static ResultWriter instance;
+
+    private final BlockingQueue<QuizResult> queue;
+    // Results submitted but not yet journaled; unbounded, since quizzes finish at human pace
+    private final BlockingQueue<QuizResult> toJournal = new LinkedBlockingQueue<>();
+    private final ResultsRepository repository;
+    private final int maxAttempts;
+    private final ResultJournal journal;
+    private final long replayMillis;
+    // Ids queued or being written, so a replay does not queue them twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Metrics metrics = Metrics.getInstance();
+    private volatile boolean running = true;
+    private volatile boolean writing = false;
+    private volatile boolean journaling = false;
+    private long lastReplay = 0;
+
+    public ResultWriter(ResultsRepository repository, int capacity, int maxAttempts, ResultJournal journal, long replayMillis) {
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.journal = journal;
+        this.replayMillis = replayMillis;
+        metrics.gauge("results.queue.depth", queue::size);
+    }
+
+    public static synchronized ResultWriter getInstance() {
+        if (instance == null) {
+            instance = new ResultWriter(Repositories.results(),
+                    Integer.getInteger("birdquiz.results.queue", 256),
+                    Integer.getInteger("birdquiz.results.maxAttempts", 8),
+                    ResultJournal.getInstance(),
+                    Long.getLong("birdquiz.results.replaySec", DEFAULT_REPLAY_SEC) * 1000);
+            instance.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::drainOnExit, "result-writer-exit"));
+        }
+        return instance;
+    }
+
+    /** Starts the writer thread and, with a journal, the journal thread. */
+    public void start() {
+        Thread thread = new Thread(this, "result-writer");
+        thread.setDaemon(true);
+        thread.start();
+        if (journal != null) {
+            Thread appender = new Thread(this::journalLoop, "result-journal");
+            appender.setDaemon(true);
+            appender.start();
+        }
+    }
+
+    /**
+     * Hands the result over for journaling and storing and returns at once; false only
+     * if there is no journal and the queue is full, so the result is lost.
+     */
+    public boolean submit(QuizResult result) {
+        if (journal != null) {
+            toJournal.add(result);
+            return true;
+        }
+        if (enqueue(result)) {
+            return true;
+        }
+        metrics.increment("results.dropped");
+        System.err.println("[RESULTS] Queue full, dropping " + result);
+        return false;
+    }
+
+    // Journals submitted results in groups, one fsync per group, then queues them for the writer
+    private void journalLoop() {
+        java.util.List<QuizResult> group = new ArrayList<>();
+        while (running) {
+            try {
+                QuizResult first = toJournal.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                journaling = true;
+                group.add(first);
+                toJournal.drainTo(group);
+                boolean journaled = false;
+                try {
+                    journal.append(group);
+                    journaled = true;
+                } catch (IOException e) {
+                    metrics.add("journal.failures", group.size());
+                    System.err.println("[RESULTS] Cannot journal " + group + ": " + e.getMessage());
+                }
+                for (QuizResult result : group) {
+                    if (enqueue(result)) continue;
+                    if (journaled) {
+                        metrics.increment("results.deferred");
+                        System.err.println("[RESULTS] Queue full, " + result + " waits in the journal");
+                    } else {
+                        metrics.increment("results.dropped");
+                        System.err.println("[RESULTS] Queue full, dropping " + result);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+                journaling = false;
+            }
+        }
+    }
+
+    private boolean enqueue(QuizResult result) {
+        if (!inFlight.add(result.getId())) return true;
+        if (queue.offer(result)) {
+            metrics.increment("results.queued");
+            return true;
+        }
+        inFlight.remove(result.getId());
+        return false;
+    }
+
+    // Queues journaled results that never reached the database
+    private void replay() {
+        lastReplay = System.currentTimeMillis();
+        if (journal == null) return;
+        try {
+            int queued = 0;
+            for (QuizResult result : journal.pending()) {
+                if (inFlight.contains(result.getId())) continue;
+                if (!enqueue(result)) break;
+                queued++;
+            }
+            if (queued > 0) {
+                metrics.add("results.replayed", queued);
+                System.out.println("[RESULTS] Replaying " + queued + " journaled results");
+            }
+        } catch (IOException e) {
+            System.err.println("[RESULTS] Cannot read journal: " + e.getMessage());
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void run() {
+        java.util.List<QuizResult> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                if (System.currentTimeMillis() - lastReplay >= replayMillis) {
+                    replay();
+                }
+                QuizResult first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                writing = true;
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                for (QuizResult result : batch) {
+                    inFlight.remove(result.getId());
+                }
+                batch.clear();
+                writing = false;
+            }
+        }
+    }
+
+    private void writeWithRetry(java.util.List<QuizResult> batch) throws InterruptedException {
+        long backoff = FIRST_BACKOFF_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                metrics.add("results.written", batch.size());
+                ackInJournal(batch);
+                return;
+            } catch (RepositoryException e) {
+                if (attempt >= maxAttempts || !e.isRetryable()) {
+                    metrics.add("results.failed", batch.size());
+                    System.err.println("[RESULTS] Giving up on " + batch.size() + " results after " + attempt
+                            + " attempts" + (journal != null ? " until the next replay" : "") + ": " + e.getMessage() + " " + batch);
+                    return;
+                }
+                metrics.increment("results.retries");
+                System.err.println("[RESULTS] Write failed (attempt " + attempt + "), retrying in " + backoff + " ms: " + e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+            }
+        }
+    }
+
+    private void write(java.util.List<QuizResult> batch) throws RepositoryException {
+        long start = System.nanoTime();
+        repository.store(batch);
+        metrics.recordSince("results.commit", start);
+        System.out.println("[RESULTS] Stored " + batch.size() + " quiz results in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private void ackInJournal(java.util.List<QuizResult> batch) {
+        if (journal == null) return;
+        try {
+            journal.ack(batch);
+        } catch (IOException e) {
+            // The rows are stored; without the ack they are replayed and ignored as duplicates
+            System.err.println("[RESULTS] Cannot ack in journal: " + e.getMessage());
+        }
+    }
+
+    // Gives the writer a few seconds to store what is queued when the kiosk exits
+    private void drainOnExit() {
+        long deadline = System.currentTimeMillis() + SHUTDOWN_DRAIN_MS;
+        while ((!toJournal.isEmpty() || journaling || !queue.isEmpty() || writing) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+        running = false;
+        if (!toJournal.isEmpty() || !queue.isEmpty()) {
+            System.err.println("[RESULTS] Exiting with " + (toJournal.size() + queue.size()) + " results not stored");
+        }
+    }
+}
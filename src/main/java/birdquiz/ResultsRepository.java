@@ -0,0 +1,13 @@
+package birdquiz;
+
+import java.util.List;
+
+/**
+ * Where finished quizzes are stored. {@link ResultWriter} hands over batches in the
+ * background. Implementations store a batch all or nothing and ignore a result whose
+ * id they already hold, since journaled results can be offered again.
+ */
+public interface ResultsRepository {
+
+    void store(List<QuizResult> batch) throws RepositoryException;
+}
@@ -0,0 +1,111 @@
+package birdquiz;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits the ESP's serial output into newline-terminated lines and turns each into an
+ * int command, without allocating per line.
+ *
+ * Bytes handed to {@link #feed} are copied into a reused line buffer; at '\n' the line
+ * is trimmed and compared byte by byte, ignoring ASCII case, against a precomputed
+ * token table. The ESP's "button pressed:" / "button released:" debug lines
+ * and blank lines are dropped. Only a line that matches nothing is turned into a String,
+ * for logging. Lines longer than {@link #MAX_LINE} bytes are discarded up to the next
+ * newline.
+ *
+ * One framer per link: it is not thread-safe, and a {@link SerialTransport} delivers
+ * its bytes on a single thread.
+ */
+public class SerialFramer {
+    public static final int BLUE = 0;
+    public static final int GREEN = 1;
+    public static final int YELLOW = 2;
+    public static final int SUBMIT = 3;
+
+    static final int MAX_LINE = 128;
+
+    private static final String[] NAMES = {"blue", "green", "yellow", "submit"};
+    private static final byte[][] TOKENS = ascii(NAMES);
+    private static final byte[][] IGNORED_PREFIXES = ascii(new String[] {"button pressed:", "button released:"});
+
+    /** Receives framed commands on the serial thread. */
+    public interface Handler {
+        void onCommand(int command);
+
+        default void onUnknown(String line) {
+            System.err.println("[SERIAL] Unknown input: " + line);
+        }
+    }
+
+    private final Handler handler;
+    private final byte[] line = new byte[MAX_LINE];
+    private int length = 0;
+    private boolean overflow = false;
+
+    public SerialFramer(Handler handler) {
+        this.handler = handler;
+    }
+
+    public static String name(int command) {
+        return command >= 0 && command < NAMES.length ? NAMES[command] : "unknown";
+    }
+
+    /** Drops a partly received line, e.g. after the link was lost mid-line. */
+    public void reset() {
+        length = 0;
+        overflow = false;
+    }
+
+    public void feed(byte[] data, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            byte b = data[i];
+            if (b == '\n') {
+                if (!overflow) frame();
+                length = 0;
+                overflow = false;
+            } else if (length < MAX_LINE) {
+                line[length++] = b;
+            } else {
+                overflow = true;
+            }
+        }
+    }
+
+    private void frame() {
+        int start = 0;
+        int end = length;
+        while (start < end && (line[start] & 0xff) <= ' ') start++;
+        while (end > start && (line[end - 1] & 0xff) <= ' ') end--;
+        if (start == end) return;
+
+        for (byte[] prefix : IGNORED_PREFIXES) {
+            if (end - start >= prefix.length && matches(prefix, start, prefix.length)) return;
+        }
+        for (int command = 0; command < TOKENS.length; command++) {
+            byte[] token = TOKENS[command];
+            if (end - start == token.length && matches(token, start, token.length)) {
+                handler.onCommand(command);
+                return;
+            }
+        }
+        handler.onUnknown(new String(line, start, end - start, StandardCharsets.US_ASCII));
+    }
+
+    // Tokens are lowercase ASCII; uppercase input letters are folded before comparing
+    private boolean matches(byte[] token, int start, int count) {
+        for (int i = 0; i < count; i++) {
+            byte b = line[start + i];
+            if (b >= 'A' && b <= 'Z') b |= 0x20;
+            if (b != token[i]) return false;
+        }
+        return true;
+    }
+
+    private static byte[][] ascii(String[] strings) {
+        byte[][] bytes = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            bytes[i] = strings[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,116 @@
+package birdquiz;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the StringBuilder line splitting the serial listeners used before
+ * {@link SerialFramer} with the framer, on a recorded-style ESP stream of button
+ * tokens, debug lines and CRLF endings delivered in uneven chunks. Reports time and
+ * bytes allocated per command; the framer should allocate nothing.
+ *
+ * Usage: java birdquiz.SerialFramerBenchmark
+ */
+public class SerialFramerBenchmark {
+    private static final long RUN_NANOS = 500_000_000L;
+    private static final int[] CHUNKS = {1, 7, 64};
+
+    public static void main(String[] args) {
+        StringBuilder text = new StringBuilder();
+        String[] tokens = {"blue", "green", "yellow", "submit"};
+        for (int i = 0; i < 1000; i++) {
+            String token = tokens[i % tokens.length];
+            text.append("Button pressed: ").append(token).append("\r\n");
+            text.append(i % 3 == 0 ? token.toUpperCase() : token).append(i % 2 == 0 ? "\n" : "\r\n");
+            text.append("Button released: ").append(token).append('\n');
+        }
+        byte[] stream = text.toString().getBytes(StandardCharsets.US_ASCII);
+        int commands = 1000;
+
+        System.out.println("=== Serial framer benchmark: " + stream.length + " bytes, " + commands + " commands per pass ===");
+        System.out.printf("%-8s %14s %14s %14s %14s%n", "chunk", "legacy ns", "framer ns", "legacy B", "framer B");
+        for (int chunk : CHUNKS) {
+            int[] legacyCounts = new int[4];
+            int[] framerCounts = new int[4];
+            LegacySplitter legacy = new LegacySplitter(legacyCounts);
+            SerialFramer framer = new SerialFramer(command -> framerCounts[command]++);
+            double[] legacyCost = measure(() -> legacy.feedAll(stream, chunk), commands);
+            double[] framerCost = measure(() -> {
+                for (int i = 0; i < stream.length; i += chunk) {
+                    framer.feed(stream, i, Math.min(chunk, stream.length - i));
+                }
+            }, commands);
+            if (!java.util.Arrays.equals(normalise(legacyCounts), normalise(framerCounts))) {
+                System.err.println("[BENCH] Framer and legacy disagree on command counts");
+            }
+            System.out.printf("%-8d %14.1f %14.1f %14.1f %14.1f%n", chunk,
+                    legacyCost[0], framerCost[0], legacyCost[1], framerCost[1]);
+        }
+    }
+
+    // Nanoseconds and bytes allocated per command, after a warm-up of the same length
+    private static double[] measure(Runnable pass, int commandsPerPass) {
+        runFor(pass, RUN_NANOS);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long passes = runFor(pass, RUN_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        double commands = (double) passes * commandsPerPass;
+        return new double[] {elapsed / commands, bytes / commands};
+    }
+
+    private static long runFor(Runnable pass, long nanos) {
+        long end = System.nanoTime() + nanos;
+        long passes = 0;
+        while (System.nanoTime() < end) {
+            pass.run();
+            passes++;
+        }
+        return passes;
+    }
+
+    // Counts are compared as proportions since the two sides run a different number of passes
+    private static long[] normalise(int[] counts) {
+        long[] shares = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            shares[i] = Math.round(counts[i] * 1000.0 / Math.max(1, counts[0]));
+        }
+        return shares;
+    }
+
+    /** The per-event logic of MainMenu.processSerialBuffer before SerialFramer, minus the port read. */
+    static class LegacySplitter {
+        private final StringBuilder serialBuf = new StringBuilder();
+        private final int[] counts;
+
+        LegacySplitter(int[] counts) {
+            this.counts = counts;
+        }
+
+        void feedAll(byte[] stream, int chunk) {
+            for (int i = 0; i < stream.length; i += chunk) {
+                int n = Math.min(chunk, stream.length - i);
+                byte[] buf = new byte[n];
+                System.arraycopy(stream, i, buf, 0, n);
+                serialBuf.append(new String(buf, 0, n));
+                int nl;
+                while ((nl = serialBuf.indexOf("\n")) >= 0) {
+                    String line = serialBuf.substring(0, nl).trim().toLowerCase();
+                    serialBuf.delete(0, nl + 1);
+                    if (line.isEmpty()) continue;
+                    if (line.startsWith("button pressed:") || line.startsWith("button released:")) continue;
+                    switch (line) {
+                        case "blue": counts[SerialFramer.BLUE]++; break;
+                        case "green": counts[SerialFramer.GREEN]++; break;
+                        case "yellow": counts[SerialFramer.YELLOW]++; break;
+                        case "submit": counts[SerialFramer.SUBMIT]++; break;
+                        default:
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package birdquiz;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load run of the serial input path: a {@link SimulatedEspTransport} storms a
+ * {@link SerialSession} with button presses, and a stand-in screen handles each one on
+ * the EDT the way the quiz does (invokeLater, then a click that takes
+ * -Dbirdquiz.load.clickMicros, default 200, and "correct" feedback after every submit,
+ * so the ESP's FEEDBACK acks are interleaved with presses). Reports throughput, presses
+ * that never reached the screen, v2 resends, duplicates and losses, the largest EDT
+ * backlog and the {@link LatencyTracer} stages.
+ *
+ * Usage: java birdquiz.SerialLoadGenerator [presses] [gapMicros]
+ * Defaults to 20000 presses 100 us apart. The -Dbirdquiz.sim.* properties of
+ * {@link SimulatedEspTransport#fromProperties} apply, e.g. -Dbirdquiz.sim.protocol=ascii,
+ * -Dbirdquiz.sim.dropRate=0.01, -Dbirdquiz.sim.duplicateRate=0.1, -Dbirdquiz.sim.maxChunk=4.
+ */
+public class SerialLoadGenerator {
+    private static final long CONNECT_TIMEOUT_MS = 5000;
+    private static final long HELLO_WAIT_MS = 500;
+    private static final long QUIET_MS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int presses = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        long gapMicros = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        long clickMicros = Long.getLong("birdquiz.load.clickMicros", 200);
+
+        SimulatedEspTransport esp = (SimulatedEspTransport) SimulatedEspTransport.fromProperties().get(0);
+        SerialSession session = new SerialSession(() -> java.util.Collections.singletonList(esp));
+        Metrics metrics = Metrics.getInstance();
+
+        AtomicLong handled = new AtomicLong();
+        AtomicInteger edtBacklog = new AtomicInteger();
+        AtomicInteger maxEdtBacklog = new AtomicInteger();
+        session.subscribe(new SerialSession.Subscriber() {
+            @Override
+            public void onCommand(int command) {
+                onCommand(command, null);
+            }
+
+            @Override
+            public void onCommand(int command, LatencyTracer.Trace trace) {
+                maxEdtBacklog.accumulateAndGet(edtBacklog.incrementAndGet(), Math::max);
+                SwingUtilities.invokeLater(() -> {
+                    edtBacklog.decrementAndGet();
+                    if (trace != null) trace.onEdt("load");
+                    long end = System.nanoTime() + clickMicros * 1000;
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                    handled.incrementAndGet();
+                    if (command == SerialFramer.SUBMIT) session.send("correct");
+                    if (trace != null) trace.clicked();
+                });
+            }
+        });
+        session.start();
+
+        // Connected, then give the v2 offer time to be answered
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        while (!session.isConnected() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        deadline = System.currentTimeMillis() + HELLO_WAIT_MS;
+        while (!session.isBinary() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        System.out.println("=== Serial load: " + presses + " presses, " + gapMicros + " us apart, "
+                + (session.isBinary() ? "protocol v2" : "ASCII") + ", click " + clickMicros + " us ===");
+
+        long start = System.nanoTime();
+        esp.storm(presses, gapMicros);
+        long stormNanos = System.nanoTime() - start;
+
+        // Wait until the wire is drained and nothing has been handled for a while
+        long last = -1;
+        long quietSince = System.currentTimeMillis();
+        while (System.currentTimeMillis() - quietSince < QUIET_MS) {
+            Thread.sleep(50);
+            long now = handled.get() + esp.getBacklog() + edtBacklog.get();
+            if (now != last) {
+                last = now;
+                quietSince = System.currentTimeMillis();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start - QUIET_MS * 1_000_000L;
+        session.close();
+
+        long missing = esp.getPresses() - handled.get();
+        System.out.printf("presses sent      %d in %.2f s (%.0f/s)%n", esp.getPresses(), stormNanos / 1e9,
+                esp.getPresses() / (stormNanos / 1e9));
+        System.out.printf("presses handled   %d (%.0f/s)%n", handled.get(), handled.get() / Math.max(1e-9, elapsedNanos / 1e9));
+        System.out.printf("missing           %d (%.3f%%)%n", missing, 100.0 * missing / Math.max(1, esp.getPresses()));
+        System.out.printf("wire drops        %d, resends %d%n", esp.getDropped(), esp.getResends());
+        System.out.printf("v2 duplicates     %d, lost %d, corrupt %d%n", metrics.count("serial.v2.duplicates"),
+                metrics.count("serial.v2.lost"), metrics.count("serial.v2.corrupt"));
+        System.out.printf("max EDT backlog   %d tasks%n", maxEdtBacklog.get());
+        System.out.println("[LATENCY]" + LatencyTracer.report());
+    }
+}
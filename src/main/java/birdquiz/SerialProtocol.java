@@ -0,0 +1,181 @@
+package birdquiz;
+
+/**
+ * Binary framing for protocol v2 between the kiosk and the ESP (src/arduino/birdquiz-esp.ino).
+ *
+ * A link starts in the ASCII protocol: newline-terminated words. On connect the host
+ * writes the line {@link #HELLO_LINE}; firmware that speaks v2 answers with a HELLO
+ * frame and from then on both sides send frames. Older firmware ignores the line and
+ * the link stays ASCII.
+ *
+ * Frame: SYNC (0xB7), type, sequence number, payload length, payload (at most
+ * {@link #MAX_PAYLOAD} bytes), CRC-8 (polynomial 0x07) over type, sequence, length and
+ * payload. Sequence numbers count per sender and wrap at 256; the ESP numbers BUTTON
+ * frames on a counter of their own, so acks and HELLOs leave no gaps in it.
+ *
+ *   HELLO     either way  payload: protocol version
+ *   ACK       either way  payload: sequence number being acknowledged
+ *   BUTTON    ESP -> host payload: button ({@link SerialFramer} command), ESP millis (4 bytes)
+ *   FEEDBACK  host -> ESP payload: {@link #FEEDBACK_CORRECT}, ... ; acked by the ESP
+ *
+ * The ESP resends a BUTTON frame until it is acked (three times at most); the host acks
+ * every copy and ignores repeats, and a gap in the sequence counts as lost presses.
+ */
+public class SerialProtocol {
+    public static final String HELLO_LINE = "proto2";
+    public static final int VERSION = 2;
+
+    public static final int SYNC = 0xB7;
+    public static final int MAX_PAYLOAD = 16;
+    public static final int MAX_FRAME = MAX_PAYLOAD + 5;
+
+    public static final int TYPE_HELLO = 0x01;
+    public static final int TYPE_ACK = 0x02;
+    public static final int TYPE_BUTTON = 0x20;
+    public static final int TYPE_FEEDBACK = 0x30;
+
+    public static final int FEEDBACK_CORRECT = 0;
+    public static final int FEEDBACK_WRONG = 1;
+    public static final int FEEDBACK_LED_SEQUENCE = 2;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x80) != 0 ? ((crc << 1) ^ 0x07) & 0xff : (crc << 1) & 0xff;
+            }
+            CRC_TABLE[i] = crc;
+        }
+    }
+
+    private SerialProtocol() {}
+
+    /** Feedback code for a message the quiz sends, or -1 if it has none. */
+    public static int feedbackCode(String message) {
+        switch (message) {
+            case "correct": return FEEDBACK_CORRECT;
+            case "wrong": return FEEDBACK_WRONG;
+            case "ledSequence": return FEEDBACK_LED_SEQUENCE;
+            default: return -1;
+        }
+    }
+
+    /** Writes a frame into out and returns its length. */
+    public static int encode(byte[] out, int type, int seq, byte[] payload, int length) {
+        out[0] = (byte) SYNC;
+        out[1] = (byte) type;
+        out[2] = (byte) seq;
+        out[3] = (byte) length;
+        System.arraycopy(payload, 0, out, 4, length);
+        out[4 + length] = (byte) crc8(out, 1, 3 + length);
+        return 5 + length;
+    }
+
+    public static int crc8(byte[] data, int offset, int length) {
+        int crc = 0;
+        for (int i = offset; i < offset + length; i++) {
+            crc = CRC_TABLE[(crc ^ data[i]) & 0xff];
+        }
+        return crc;
+    }
+
+    /** Receives decoded frames on the transport's thread; the payload array is reused. */
+    public interface FrameHandler {
+        void onFrame(int type, int seq, byte[] payload, int length);
+
+        default void onCorruptFrame() {}
+    }
+
+    /**
+     * Splits a byte stream into v2 frames and ASCII text. Bytes outside frames go to the
+     * line framer, so a link that falls back to ASCII (the ESP rebooted, or never spoke
+     * v2) keeps working with no mode switch on the receiving side. Does not allocate;
+     * not thread-safe.
+     */
+    public static class Decoder {
+        private static final int IDLE = 0;
+        private static final int TYPE = 1;
+        private static final int SEQ = 2;
+        private static final int LENGTH = 3;
+        private static final int PAYLOAD = 4;
+        private static final int CRC = 5;
+
+        private final SerialFramer text;
+        private final FrameHandler frames;
+        private final byte[] header = new byte[3];
+        private final byte[] payload = new byte[MAX_PAYLOAD];
+        private int state = IDLE;
+        private int received = 0;
+
+        public Decoder(SerialFramer text, FrameHandler frames) {
+            this.text = text;
+            this.frames = frames;
+        }
+
+        public void reset() {
+            state = IDLE;
+            text.reset();
+        }
+
+        public void feed(byte[] data, int offset, int count) {
+            int textStart = offset;
+            int end = offset + count;
+            for (int i = offset; i < end; i++) {
+                int b = data[i] & 0xff;
+                switch (state) {
+                    case IDLE:
+                        if (b == SYNC) {
+                            if (i > textStart) text.feed(data, textStart, i - textStart);
+                            state = TYPE;
+                        }
+                        break;
+                    case TYPE:
+                        header[0] = (byte) b;
+                        state = SEQ;
+                        break;
+                    case SEQ:
+                        header[1] = (byte) b;
+                        state = LENGTH;
+                        break;
+                    case LENGTH:
+                        header[2] = (byte) b;
+                        received = 0;
+                        if (b > MAX_PAYLOAD) {
+                            frames.onCorruptFrame();
+                            state = IDLE;
+                            textStart = i + 1;
+                        } else {
+                            state = b == 0 ? CRC : PAYLOAD;
+                        }
+                        break;
+                    case PAYLOAD:
+                        payload[received++] = (byte) b;
+                        if (received == (header[2] & 0xff)) state = CRC;
+                        break;
+                    case CRC:
+                        int crc = CRC_TABLE[header[0] & 0xff];
+                        crc = CRC_TABLE[(crc ^ header[1]) & 0xff];
+                        crc = CRC_TABLE[(crc ^ header[2]) & 0xff];
+                        for (int p = 0; p < received; p++) {
+                            crc = CRC_TABLE[(crc ^ payload[p]) & 0xff];
+                        }
+                        if (crc == b) {
+                            frames.onFrame(header[0] & 0xff, header[1] & 0xff, payload, received);
+                        } else {
+                            frames.onCorruptFrame();
+                        }
+                        state = IDLE;
+                        textStart = i + 1;
+                        break;
+                    default:
+                        state = IDLE;
+                }
+            }
+            if (state == IDLE && end > textStart) {
+                text.feed(data, textStart, end - textStart);
+            }
+        }
+    }
+}
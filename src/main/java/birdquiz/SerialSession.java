@@ -0,0 +1,344 @@
+package birdquiz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The kiosk's one connection to the ESP, open for the life of the process so moving
+ * between the menu and a quiz neither closes nor re-probes the port.
+ *
+ * Screens {@link #subscribe} when they open and {@link #unsubscribe} when they close.
+ * Commands go to the most recent subscriber only, which is the screen in front: a quiz
+ * opened from the menu subscribes before the menu is disposed, so no button press falls
+ * into a gap between windows.
+ *
+ * The first transport that opens is kept. If none opens, or the link fails later, the
+ * session tries again every -Dbirdquiz.serial.retrySec seconds (default 3), so an ESP
+ * plugged in after startup is picked up. Transports come from a supplier, by default
+ * the USB serial ports ({@link JSerialCommTransport}), or a {@link SimulatedEspTransport}
+ * with -Dbirdquiz.serial.transport=simulated.
+ *
+ * Each new link offers the binary {@link SerialProtocol} v2 and stays on newline ASCII
+ * until the ESP accepts; -Dbirdquiz.serial.protocol=ascii turns the offer off. Button
+ * frames are acked, repeats are dropped and sequence gaps are counted as
+ * serial.v2.lost. If the ESP sends ASCII commands again (it rebooted), the session
+ * falls back to ASCII and offers v2 once more.
+ */
+public class SerialSession implements SerialTransport.Receiver, SerialProtocol.FrameHandler {
+    private static final long DEFAULT_RETRY_SEC = 3;
+
+    private static SerialSession instance;
+
+    /** A screen that takes ESP commands, told about connection changes as well. */
+    public interface Subscriber extends SerialFramer.Handler {
+        default void onStatus(String status) {}
+
+        /** The command with its {@link LatencyTracer} trace, for screens that time their response. */
+        default void onCommand(int command, LatencyTracer.Trace trace) {
+            onCommand(command);
+        }
+    }
+
+    private final Supplier<java.util.List<SerialTransport>> transports;
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // The screen in front, read by the serial thread for every command
+    private volatile Subscriber front;
+    private final SerialProtocol.Decoder decoder = new SerialProtocol.Decoder(new SerialFramer(this::onTextCommand), this);
+    private final boolean offerV2 = !"ascii".equalsIgnoreCase(System.getProperty("birdquiz.serial.protocol"));
+    // Frames are built in these under writeLock; acks come from the serial thread, feedback from the EDT
+    private final Object writeLock = new Object();
+    private final byte[] frame = new byte[SerialProtocol.MAX_FRAME];
+    private final byte[] framePayload = new byte[SerialProtocol.MAX_PAYLOAD];
+    private int txSeq = 0;
+    private volatile boolean binary = false;
+    // Last button sequence number seen on this link, -1 before the first. Reset with the
+    // decoder before a transport opens, then owned by that transport's receive thread
+    private int lastButtonSeq = -1;
+    // When the bytes being decoded were read; serial thread only
+    private long receivedNanos;
+    private final Metrics metrics = Metrics.getInstance();
+    private final ScheduledExecutorService connector = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "serial-connect");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile SerialTransport transport;
+    // Set once the transport has opened; until then it only acks what the ESP sends
+    private volatile boolean connected = false;
+    private volatile String status = "Serial: connecting";
+    private boolean started = false;
+
+    public SerialSession(Supplier<java.util.List<SerialTransport>> transports) {
+        this.transports = transports;
+        metrics.gauge("serial.connected", () -> connected ? 1 : 0);
+    }
+
+    public static synchronized SerialSession getInstance() {
+        if (instance == null) {
+            boolean simulated = "simulated".equalsIgnoreCase(System.getProperty("birdquiz.serial.transport"));
+            instance = new SerialSession(simulated ? SimulatedEspTransport::fromProperties : JSerialCommTransport::available);
+            instance.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "serial-close"));
+        }
+        return instance;
+    }
+
+    /** Connects in the background and keeps retrying while disconnected. */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+        long seconds = Math.max(1, Long.getLong("birdquiz.serial.retrySec", DEFAULT_RETRY_SEC));
+        connector.scheduleWithFixedDelay(this::connectIfNeeded, 0, seconds, TimeUnit.SECONDS);
+    }
+
+    public void subscribe(Subscriber subscriber) {
+        synchronized (subscribers) {
+            subscribers.remove(subscriber);
+            subscribers.add(subscriber);
+            front = subscriber;
+        }
+        subscriber.onStatus(status);
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        synchronized (subscribers) {
+            subscribers.remove(subscriber);
+            int last = subscribers.size() - 1;
+            front = last < 0 ? null : subscribers.get(last);
+        }
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /** True while a transport is open. */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Sends quiz feedback: a FEEDBACK frame on a v2 link, otherwise one newline-terminated
+     * line. Dropped if the ESP is not connected.
+     */
+    public boolean send(String message) {
+        SerialTransport current = transport;
+        if (current == null || !connected) return false;
+        int code = SerialProtocol.feedbackCode(message);
+        boolean sent;
+        if (binary && code >= 0) {
+            synchronized (writeLock) {
+                framePayload[0] = (byte) code;
+                sent = writeFrame(current, SerialProtocol.TYPE_FEEDBACK, txSeq, 1);
+                txSeq = (txSeq + 1) & 0xff;
+            }
+        } else {
+            sent = writeLine(current, message);
+        }
+        if (sent) {
+            System.out.println("Sent to Arduino: " + message);
+        }
+        return sent;
+    }
+
+    @Override
+    public void onBytes(byte[] data, int offset, int count) {
+        receivedNanos = System.nanoTime();
+        decoder.feed(data, offset, count);
+    }
+
+    @Override
+    public void onFrame(int type, int seq, byte[] payload, int length) {
+        switch (type) {
+            case SerialProtocol.TYPE_HELLO:
+                if (!binary) {
+                    binary = true;
+                    lastButtonSeq = -1;
+                    LatencyTracer.resetEspClock();
+                    System.out.println("[SERIAL] ESP speaks protocol v" + (length > 0 ? payload[0] : "?") + ", switching to binary frames");
+                }
+                break;
+            case SerialProtocol.TYPE_BUTTON:
+                SerialTransport current = transport;
+                if (current != null) {
+                    synchronized (writeLock) {
+                        framePayload[0] = (byte) seq;
+                        writeFrame(current, SerialProtocol.TYPE_ACK, txSeq, 1);
+                        txSeq = (txSeq + 1) & 0xff;
+                    }
+                }
+                if (seq == lastButtonSeq) {
+                    metrics.increment("serial.v2.duplicates");
+                    return;
+                }
+                if (lastButtonSeq >= 0) {
+                    int lost = (seq - lastButtonSeq - 1) & 0xff;
+                    if (lost > 0) {
+                        metrics.add("serial.v2.lost", lost);
+                        System.err.println("[SERIAL] " + lost + " button frames lost before #" + seq);
+                    }
+                }
+                lastButtonSeq = seq;
+                if (length >= 5) {
+                    long espMillis = ((payload[1] & 0xffL) << 24) | ((payload[2] & 0xff) << 16)
+                            | ((payload[3] & 0xff) << 8) | (payload[4] & 0xff);
+                    dispatch(payload[0], espMillis);
+                } else if (length > 0) {
+                    dispatch(payload[0], -1);
+                }
+                break;
+            case SerialProtocol.TYPE_ACK:
+                metrics.increment("serial.v2.acks");
+                break;
+            default:
+                metrics.increment("serial.v2.unknownFrames");
+        }
+    }
+
+    @Override
+    public void onCorruptFrame() {
+        metrics.increment("serial.v2.corrupt");
+    }
+
+    private void onTextCommand(int command) {
+        if (binary) {
+            // Only firmware that restarted talks ASCII on a v2 link
+            binary = false;
+            System.err.println("[SERIAL] ESP is back on ASCII, offering v2 again");
+            offerBinary();
+        }
+        dispatch(command, -1);
+    }
+
+    private void offerBinary() {
+        SerialTransport current = transport;
+        if (offerV2 && current != null && connected) {
+            writeLine(current, SerialProtocol.HELLO_LINE);
+        }
+    }
+
+    private boolean writeLine(SerialTransport current, String line) {
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        int written;
+        synchronized (writeLock) {
+            written = current.write(bytes, bytes.length);
+        }
+        if (written < 0) {
+            onDisconnected();
+            return false;
+        }
+        return true;
+    }
+
+    // Caller holds writeLock and has filled framePayload
+    private boolean writeFrame(SerialTransport current, int type, int seq, int length) {
+        int size = SerialProtocol.encode(frame, type, seq, framePayload, length);
+        if (current.write(frame, size) < 0) {
+            onDisconnected();
+            return false;
+        }
+        metrics.add("serial.v2.bytesOut", size);
+        return true;
+    }
+
+    @Override
+    public void onDisconnected() {
+        SerialTransport lost;
+        synchronized (this) {
+            lost = transport;
+            if (lost == null) return;
+            transport = null;
+            connected = false;
+        }
+        lost.close();
+        metrics.increment("serial.disconnects");
+        setStatus("Serial: " + lost.getName() + " lost, retrying");
+        System.err.println("[SERIAL] Lost " + lost.getName() + ", reconnecting");
+    }
+
+    public synchronized void close() {
+        connector.shutdownNow();
+        if (transport != null) {
+            System.out.println("[SERIAL] Closing " + transport.getName());
+            transport.close();
+            transport = null;
+            connected = false;
+        }
+    }
+
+    private void dispatch(int command, long espMillis) {
+        metrics.increment("serial.commands");
+        LatencyTracer.Trace trace = LatencyTracer.framed(receivedNanos, espMillis);
+        Subscriber subscriber = front;
+        if (subscriber != null) {
+            subscriber.onCommand(command, trace);
+        }
+    }
+
+    private void connectIfNeeded() {
+        if (transport != null) return;
+        java.util.List<SerialTransport> candidates;
+        try {
+            candidates = transports.get();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (candidates.isEmpty()) {
+            setStatus("Serial: none (no ports)");
+            return;
+        }
+        for (SerialTransport candidate : candidates) {
+            // Reset here, before open starts the receive thread that owns this state from then on.
+            // The transport is assigned first so a BUTTON frame that arrives straight away is acked
+            decoder.reset();
+            binary = false;
+            lastButtonSeq = -1;
+            LatencyTracer.resetEspClock();
+            synchronized (this) {
+                transport = candidate;
+            }
+            boolean opened = false;
+            try {
+                opened = candidate.open(this);
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            synchronized (this) {
+                // An ack that failed to write has already dropped the transport
+                opened = opened && transport == candidate;
+                if (opened) {
+                    connected = true;
+                } else if (transport == candidate) {
+                    transport = null;
+                }
+            }
+            if (!opened) {
+                candidate.close();
+                continue;
+            }
+            metrics.increment("serial.connects");
+            setStatus("Serial: " + candidate.getName());
+            System.out.println("[SERIAL] Opened " + candidate.getName());
+            offerBinary();
+            return;
+        }
+        setStatus("Serial: none (open failed)");
+    }
+
+    private void setStatus(String next) {
+        if (next.equals(status)) return;
+        status = next;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.onStatus(next);
+        }
+    }
+}
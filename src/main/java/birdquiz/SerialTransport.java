@@ -0,0 +1,26 @@
+package birdquiz;
+
+/**
+ * A byte link to the ESP as used by {@link SerialSession}: a USB serial port in the
+ * kiosk, something else in tests and load runs.
+ */
+public interface SerialTransport {
+
+    /** Receives bytes on the transport's own thread. */
+    interface Receiver {
+        void onBytes(byte[] data, int offset, int count);
+
+        /** The link failed while reading; the session closes the transport and reconnects. */
+        void onDisconnected();
+    }
+
+    String getName();
+
+    /** Opens the link and starts delivering to the receiver; false if it cannot be opened. */
+    boolean open(Receiver receiver);
+
+    /** Bytes written, or -1 if the link has failed. */
+    int write(byte[] data, int length);
+
+    void close();
+}
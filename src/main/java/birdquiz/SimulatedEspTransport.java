@@ -0,0 +1,330 @@
+package birdquiz;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A software ESP for {@link SerialSession}, so menus, quizzes and the serial path can be
+ * exercised without the board. It behaves like src/arduino/birdquiz-esp.ino: in ASCII
+ * it prints "Button pressed: X", then "X", then "Button released: X" for every press,
+ * answers "proto2" with a HELLO frame when v2 is enabled, then sends BUTTON frames
+ * that are resent every 150 ms until acked (three times at most), and acks FEEDBACK.
+ *
+ * To look like a real link, output is delivered on its own thread in chunks of random
+ * size (lines split across reads), "Button pressed:" lines can be doubled, and a run
+ * of bytes can be dropped on the wire: sometimes a whole write, more often part of a
+ * line or frame, which the host has to resync from.
+ *
+ * Started from the kiosk with -Dbirdquiz.serial.transport=simulated; the
+ * -Dbirdquiz.sim.* properties are read by {@link #fromProperties}. Presses come from
+ * {@link #press}, or from a script (-Dbirdquiz.sim.script) whose lines are
+ *
+ *   blue|green|yellow|submit [times] [gapMs]
+ *   random &lt;count&gt; &lt;gapMs&gt;
+ *   wait &lt;ms&gt;
+ *
+ * and which is played once the host has connected. '#' starts a comment.
+ */
+public class SimulatedEspTransport implements SerialTransport {
+    private static final String[] BUTTONS = {"blue", "green", "yellow", "submit"};
+    private static final long RESEND_NANOS = 150_000_000L;
+    private static final int MAX_RESENDS = 3;
+
+    private final boolean v2Capable;
+    private final double duplicateRate;
+    private final double dropRate;
+    private final int maxChunk;
+    private final Random random;
+    private final java.util.List<String> script;
+    private final long bootNanos = System.nanoTime();
+
+    // Bytes for the host, in order; the wire thread delivers them in random chunks
+    private final LinkedBlockingQueue<byte[]> outgoing = new LinkedBlockingQueue<>();
+    private final SerialProtocol.Decoder hostDecoder;
+    private final AtomicLong presses = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong resends = new AtomicLong();
+
+    private volatile Receiver receiver;
+    private volatile boolean open = false;
+    private Thread wire;
+    private Thread player;
+
+    // Firmware state, guarded by this
+    private boolean protoV2 = false;
+    private int txSeq = 0;
+    private int buttonSeq = 0;
+    private byte[] pendingFrame;
+    private int pendingSeq;
+    private long pendingSentAt;
+    private int pendingResends;
+
+    public SimulatedEspTransport(boolean v2Capable, double duplicateRate, double dropRate, int maxChunk,
+                                 long seed, java.util.List<String> script) {
+        this.v2Capable = v2Capable;
+        this.duplicateRate = duplicateRate;
+        this.dropRate = dropRate;
+        this.maxChunk = Math.max(1, maxChunk);
+        this.random = new Random(seed);
+        this.script = script;
+        this.hostDecoder = new SerialProtocol.Decoder(new SerialFramer(new SerialFramer.Handler() {
+            @Override
+            public void onCommand(int command) {}
+
+            @Override
+            public void onUnknown(String line) {
+                onHostLine(line);
+            }
+        }), this::onHostFrame);
+    }
+
+    /** A simulated ESP configured from -Dbirdquiz.sim.* properties. */
+    public static java.util.List<SerialTransport> fromProperties() {
+        java.util.List<String> script = null;
+        String path = System.getProperty("birdquiz.sim.script");
+        if (path != null) {
+            try {
+                script = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("[SIM] Cannot read script " + path + ": " + e.getMessage());
+            }
+        }
+        java.util.List<SerialTransport> transports = new java.util.ArrayList<>();
+        transports.add(new SimulatedEspTransport(
+                !"ascii".equalsIgnoreCase(System.getProperty("birdquiz.sim.protocol")),
+                Double.parseDouble(System.getProperty("birdquiz.sim.duplicateRate", "0")),
+                Double.parseDouble(System.getProperty("birdquiz.sim.dropRate", "0")),
+                Integer.getInteger("birdquiz.sim.maxChunk", 16),
+                Long.getLong("birdquiz.sim.seed", 42L),
+                script));
+        return transports;
+    }
+
+    @Override
+    public String getName() {
+        return "simulated-esp";
+    }
+
+    @Override
+    public synchronized boolean open(Receiver receiver) {
+        if (open) return false;
+        this.receiver = receiver;
+        open = true;
+        wire = new Thread(this::deliver, "sim-esp-wire");
+        wire.setDaemon(true);
+        wire.start();
+        if (script != null) {
+            player = new Thread(() -> play(script), "sim-esp-script");
+            player.setDaemon(true);
+            player.start();
+        }
+        System.out.println("[SIM] Simulated ESP connected (" + (v2Capable ? "v2 capable" : "ASCII only") + ")");
+        return true;
+    }
+
+    @Override
+    public int write(byte[] data, int length) {
+        if (!open) return -1;
+        synchronized (hostDecoder) {
+            hostDecoder.feed(data, 0, length);
+        }
+        return length;
+    }
+
+    @Override
+    public synchronized void close() {
+        open = false;
+        if (wire != null) wire.interrupt();
+        if (player != null) player.interrupt();
+    }
+
+    /** Presses a button (a {@link SerialFramer} command) the way the firmware reports it. */
+    public void press(int command) {
+        String name = BUTTONS[command];
+        presses.incrementAndGet();
+        synchronized (this) {
+            if (protoV2) {
+                long now = millis();
+                byte[] payload = {(byte) command, (byte) (now >> 24), (byte) (now >> 16), (byte) (now >> 8), (byte) now};
+                pendingSeq = buttonSeq;
+                buttonSeq = (buttonSeq + 1) & 0xff;
+                pendingFrame = frame(SerialProtocol.TYPE_BUTTON, pendingSeq, payload);
+                pendingSentAt = System.nanoTime();
+                pendingResends = 0;
+                transmit(pendingFrame);
+                return;
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Button pressed: ").append(name).append('\n');
+        if (random.nextDouble() < duplicateRate) {
+            text.append("Button pressed: ").append(name).append('\n');
+        }
+        text.append(name).append('\n');
+        text.append("Button released: ").append(name).append('\n');
+        transmit(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Presses random buttons, count times, gapMicros apart. */
+    public void storm(int count, long gapMicros) {
+        for (int i = 0; i < count && open; i++) {
+            press(random.nextInt(BUTTONS.length));
+            if (gapMicros > 0) LockSupport.parkNanos(gapMicros * 1000);
+        }
+    }
+
+    public long getPresses() {
+        return presses.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getResends() {
+        return resends.get();
+    }
+
+    /** Writes by the firmware (lines, frames) not yet handed to the host. */
+    public int getBacklog() {
+        return outgoing.size();
+    }
+
+    public synchronized boolean isBinary() {
+        return protoV2;
+    }
+
+    private void play(java.util.List<String> lines) {
+        try {
+            for (String raw : lines) {
+                String line = raw.replaceAll("#.*", "").trim().toLowerCase();
+                if (line.isEmpty()) continue;
+                String[] words = line.split("\\s+");
+                if (words[0].equals("wait")) {
+                    Thread.sleep(Long.parseLong(words[1]));
+                } else if (words[0].equals("random")) {
+                    storm(Integer.parseInt(words[1]), words.length > 2 ? Long.parseLong(words[2]) * 1000 : 0);
+                } else {
+                    int command = indexOf(words[0]);
+                    if (command < 0) {
+                        System.err.println("[SIM] Unknown script line: " + raw);
+                        continue;
+                    }
+                    int times = words.length > 1 ? Integer.parseInt(words[1]) : 1;
+                    long gap = words.length > 2 ? Long.parseLong(words[2]) : 0;
+                    for (int i = 0; i < times && open; i++) {
+                        press(command);
+                        if (gap > 0) Thread.sleep(gap);
+                    }
+                }
+            }
+            System.out.println("[SIM] Script finished after " + presses.get() + " presses");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("[SIM] Script stopped: " + e);
+        }
+    }
+
+    // Hands queued bytes to the host in chunks of 1..maxChunk bytes and resends unacked presses
+    private void deliver() {
+        try {
+            while (open) {
+                byte[] data = outgoing.poll(50, TimeUnit.MILLISECONDS);
+                if (data != null) {
+                    for (int offset = 0; offset < data.length; ) {
+                        int n = Math.min(data.length - offset, 1 + random.nextInt(maxChunk));
+                        receiver.onBytes(data, offset, n);
+                        offset += n;
+                    }
+                }
+                resendIfDue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void resendIfDue() {
+        if (pendingFrame == null || System.nanoTime() - pendingSentAt < RESEND_NANOS) return;
+        if (pendingResends >= MAX_RESENDS) {
+            pendingFrame = null;
+            return;
+        }
+        pendingResends++;
+        pendingSentAt = System.nanoTime();
+        resends.incrementAndGet();
+        transmit(pendingFrame);
+    }
+
+    // A glitch on the cable loses a random run of bytes from the write, up to all of it
+    private void transmit(byte[] data) {
+        if (dropRate > 0 && random.nextDouble() < dropRate) {
+            dropped.incrementAndGet();
+            int from = random.nextInt(data.length);
+            int to = from + 1 + random.nextInt(data.length - from);
+            if (to - from == data.length) return;
+            byte[] kept = new byte[data.length - (to - from)];
+            System.arraycopy(data, 0, kept, 0, from);
+            System.arraycopy(data, to, kept, from, data.length - to);
+            data = kept;
+        }
+        outgoing.add(data);
+    }
+
+    private void onHostLine(String line) {
+        synchronized (this) {
+            if (line.equals(SerialProtocol.HELLO_LINE) && v2Capable) {
+                protoV2 = true;
+                outgoing.add(frame(SerialProtocol.TYPE_HELLO, nextSeq(), new byte[] {(byte) SerialProtocol.VERSION}));
+                return;
+            }
+            // "correct", "wrong" and "ledSequence" only change the OLED and LEDs on the board
+            if (!protoV2) {
+                outgoing.add(("Received: " + line + "\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    private void onHostFrame(int type, int seq, byte[] payload, int length) {
+        synchronized (this) {
+            if (type == SerialProtocol.TYPE_ACK) {
+                if (length > 0 && pendingFrame != null && (payload[0] & 0xff) == pendingSeq) {
+                    pendingFrame = null;
+                }
+            } else if (type == SerialProtocol.TYPE_FEEDBACK) {
+                outgoing.add(frame(SerialProtocol.TYPE_ACK, nextSeq(), new byte[] {(byte) seq}));
+            }
+        }
+    }
+
+    private int nextSeq() {
+        int seq = txSeq;
+        txSeq = (txSeq + 1) & 0xff;
+        return seq;
+    }
+
+    private long millis() {
+        return (System.nanoTime() - bootNanos) / 1_000_000;
+    }
+
+    private static byte[] frame(int type, int seq, byte[] payload) {
+        byte[] out = new byte[payload.length + 5];
+        SerialProtocol.encode(out, type, seq, payload, payload.length);
+        return out;
+    }
+
+    private static int indexOf(String button) {
+        for (int i = 0; i < BUTTONS.length; i++) {
+            if (BUTTONS[i].equals(button)) return i;
+        }
+        return -1;
+    }
+}
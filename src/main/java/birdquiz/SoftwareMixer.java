@@ -0,0 +1,267 @@
+package birdquiz;
+
+import javax.sound.sampled.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Plays every effect through one SourceDataLine owned by a dedicated audio thread.
+ *
+ * Sounds are decoded once into 16-bit stereo samples at the line's rate. Triggering a
+ * sound only queues it; the audio thread picks it up before mixing the next chunk, so
+ * no line is acquired per play and the delay to output is bounded by the chunk and
+ * line buffer sizes. Those are small (about 6 ms and 23 ms) and the line is kept fed
+ * with silence, so it never has to restart.
+ *
+ * At most -Dbirdquiz.mixer.voices (default 4) sounds play at once. When all voices are
+ * busy a new sound takes over the lowest-priority voice if its own priority is at least
+ * as high, and is dropped otherwise: answer sounds beat Submit, which beats the
+ * radio-button click. A sound restarts instead of stacking if it is already playing.
+ *
+ * Selected with -Dbirdquiz.audio=mixer; see {@link SoundUtil}.
+ */
+public class SoftwareMixer implements Runnable {
+    private static final float SAMPLE_RATE = 44100f;
+    private static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+    private static final int CHUNK_FRAMES = 256;
+    private static final int LINE_BUFFER_FRAMES = CHUNK_FRAMES * 4;
+    private static final int DEFAULT_VOICES = 4;
+
+    static final int PRIORITY_CLICK = 0;
+    static final int PRIORITY_EFFECT = 1;
+    static final int PRIORITY_ANSWER = 2;
+
+    private static SoftwareMixer instance;
+
+    private final Map<String, short[]> samples = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> failed = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Trigger> triggers = new ConcurrentLinkedQueue<>();
+    private final Voice[] voices;
+    private final int[] mix = new int[CHUNK_FRAMES * 2];
+    private final byte[] out = new byte[CHUNK_FRAMES * 4];
+
+    private final Metrics metrics = Metrics.getInstance();
+    private final Metrics.Histogram triggerToOutput = metrics.histogram("audio.mixer.triggerToOutput");
+
+    private volatile SourceDataLine line;
+    private volatile boolean running = true;
+    private volatile int activeVoices = 0;
+
+    public SoftwareMixer(int maxVoices) {
+        voices = new Voice[Math.max(1, maxVoices)];
+        for (int i = 0; i < voices.length; i++) {
+            voices[i] = new Voice();
+        }
+        metrics.gauge("audio.lines.open", () -> line != null && line.isOpen() ? 1 : 0);
+        metrics.gauge("audio.mixer.voices.active", () -> activeVoices);
+        metrics.gauge("audio.mixer.voices.max", () -> voices.length);
+    }
+
+    public static synchronized SoftwareMixer getInstance() {
+        if (instance == null) {
+            instance = new SoftwareMixer(Integer.getInteger("birdquiz.mixer.voices", DEFAULT_VOICES));
+            Thread thread = new Thread(instance, "audio-mixer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+        }
+        return instance;
+    }
+
+    /** Decodes every sound in {@link SoundBank#NAMES}; call from a background thread at startup. */
+    public void preload() {
+        long start = System.nanoTime();
+        for (String name : SoundBank.NAMES) {
+            samples(name);
+        }
+        System.out.println("[MIXER] Preloaded " + samples.size() + " of " + SoundBank.NAMES.length + " sounds in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /** Queues the sound; returns immediately. */
+    public void play(String name) {
+        short[] data = running ? samples(name) : null;
+        if (data != null) {
+            triggers.add(new Trigger(name, data, priorityOf(name), System.nanoTime()));
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+    }
+
+    static int priorityOf(String name) {
+        if (name.startsWith("right_answer") || name.startsWith("wrong_answer") || name.startsWith("bird_nerd")) {
+            return PRIORITY_ANSWER;
+        }
+        if (name.startsWith("radio_button")) {
+            return PRIORITY_CLICK;
+        }
+        return PRIORITY_EFFECT;
+    }
+
+    @Override
+    public void run() {
+        try {
+            SourceDataLine l = AudioSystem.getSourceDataLine(FORMAT);
+            l.open(FORMAT, LINE_BUFFER_FRAMES * FORMAT.getFrameSize());
+            l.start();
+            line = l;
+            System.out.println("[MIXER] Line open: " + FORMAT + ", buffer " + l.getBufferSize() + " bytes");
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            metrics.increment(e instanceof LineUnavailableException
+                    ? SoundBank.METRIC_LINE_UNAVAILABLE : SoundBank.METRIC_PLAY_FAILURES);
+            System.err.println("[MIXER] No audio line, sounds disabled: " + e.getMessage());
+            running = false;
+            return;
+        }
+
+        while (running) {
+            startQueued();
+            mixChunk();
+            // Blocks once the line buffer is full, which paces this loop to the sound card
+            line.write(out, 0, out.length);
+        }
+        line.drain();
+        line.close();
+    }
+
+    private void startQueued() {
+        Trigger trigger;
+        while ((trigger = triggers.poll()) != null) {
+            Voice voice = voiceFor(trigger);
+            if (voice == null) {
+                metrics.increment("audio.mixer.dropped");
+                continue;
+            }
+            metrics.increment(SoundBank.METRIC_PLAYS);
+            voice.name = trigger.name;
+            voice.data = trigger.data;
+            voice.priority = trigger.priority;
+            voice.position = 0;
+            voice.startedAt = trigger.queuedAt;
+            voice.reported = false;
+        }
+    }
+
+    private Voice voiceFor(Trigger trigger) {
+        // The same sound restarts rather than playing twice on top of itself
+        for (Voice voice : voices) {
+            if (voice.data != null && voice.name.equals(trigger.name)) return voice;
+        }
+        for (Voice voice : voices) {
+            if (voice.data == null) return voice;
+        }
+        Voice lowest = null;
+        for (Voice voice : voices) {
+            if (lowest == null || voice.priority < lowest.priority
+                    || (voice.priority == lowest.priority && voice.startedAt < lowest.startedAt)) {
+                lowest = voice;
+            }
+        }
+        return lowest.priority <= trigger.priority ? lowest : null;
+    }
+
+    private void mixChunk() {
+        java.util.Arrays.fill(mix, 0);
+        int active = 0;
+        for (Voice voice : voices) {
+            short[] data = voice.data;
+            if (data == null) continue;
+            active++;
+            if (!voice.reported) {
+                recordLatency(voice.startedAt);
+                voice.reported = true;
+            }
+            int count = Math.min(mix.length, data.length - voice.position);
+            for (int i = 0; i < count; i++) {
+                mix[i] += data[voice.position + i];
+            }
+            voice.position += count;
+            if (voice.position >= data.length) {
+                voice.data = null;
+            }
+        }
+        activeVoices = active;
+        for (int i = 0, b = 0; i < mix.length; i++, b += 2) {
+            int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[b] = (byte) s;
+            out[b + 1] = (byte) (s >> 8);
+        }
+    }
+
+    // Trigger-to-output: time until the voice is mixed, plus what is already queued in the line
+    private void recordLatency(long queuedAt) {
+        long queuedFrames = (line.getBufferSize() - line.available()) / FORMAT.getFrameSize();
+        triggerToOutput.record((System.nanoTime() - queuedAt) / 1000 + (long) (queuedFrames * 1_000_000L / SAMPLE_RATE));
+    }
+
+    private short[] samples(String name) {
+        short[] data = samples.get(name);
+        if (data != null || failed.containsKey(name)) {
+            return data;
+        }
+        long start = System.nanoTime();
+        try {
+            data = toMixFormat(SoundBank.decode(name));
+            samples.put(name, data);
+            metrics.recordSince(SoundBank.METRIC_DECODE + "." + name, start);
+        } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+            failed.put(name, Boolean.TRUE);
+            metrics.increment(SoundBank.METRIC_DECODE_FAILURES);
+            System.err.println("[MIXER] Cannot load " + name + ": " + e.getMessage());
+        }
+        return data;
+    }
+
+    /** Converts decoded PCM to interleaved 16-bit stereo samples at the mixer's rate. */
+    static short[] toMixFormat(SoundBank.Pcm pcm) throws IOException {
+        AudioFormat source = pcm.getFormat();
+        byte[] bytes = pcm.getData();
+        AudioInputStream in = new AudioInputStream(new ByteArrayInputStream(bytes), source,
+                bytes.length / source.getFrameSize());
+        if (!source.matches(FORMAT)) {
+            in = AudioSystem.getAudioInputStream(FORMAT, in);
+        }
+        byte[] converted;
+        try (AudioInputStream stream = in) {
+            converted = stream.readAllBytes();
+        }
+        short[] data = new short[converted.length / 2];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (short) ((converted[2 * i] & 0xff) | (converted[2 * i + 1] << 8));
+        }
+        return data;
+    }
+
+    public String stats() {
+        return "dropped=" + metrics.count("audio.mixer.dropped") + ", trigger-to-output " + triggerToOutput;
+    }
+
+    private static class Trigger {
+        final String name;
+        final short[] data;
+        final int priority;
+        final long queuedAt;
+
+        Trigger(String name, short[] data, int priority, long queuedAt) {
+            this.name = name;
+            this.data = data;
+            this.priority = priority;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    // Only touched by the audio thread
+    private static class Voice {
+        String name;
+        short[] data;
+        int priority;
+        int position;
+        long startedAt;
+        boolean reported;
+    }
+}
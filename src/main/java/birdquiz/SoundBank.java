@@ -0,0 +1,281 @@
+package birdquiz;
+
+import javax.sound.sampled.*;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every effect under /sounds, decoded to PCM once and held in a small pool of open Clips.
+ *
+ * Playing a sound rewinds an idle Clip of that sound and starts it; if every Clip in its
+ * pool is still playing, the one started longest ago is restarted. Nothing is read,
+ * parsed or opened on that path, and the number of open lines is fixed at
+ * sounds x pool size instead of growing with every tap.
+ *
+ * The pool size defaults to 2 and can be changed with -Dbirdquiz.sound.pool=N.
+ *
+ * A file that cannot be decoded is given up on. If the Clips cannot be opened because no
+ * line is free, or there is no audio device, the decoded PCM is kept and opening is
+ * retried on a later play, backing off from one second to a minute.
+ */
+public class SoundBank {
+    /** Sounds the kiosk plays, preloaded at startup. Others are loaded on first use. */
+    public static final String[] NAMES = {
+        "radio_button_selected.wav", "submit_button_pressed.wav", "right_answer.wav",
+        "wrong_answer.wav", "wrong_answer1.wav", "bird_nerd.wav", "submit.wav",
+        "songbirds.wav", "ducks.wav", "raptors.wav", "blue.wav", "green.wav", "yellow.wav"
+    };
+
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final long FIRST_LINE_RETRY_NANOS = 1_000_000_000L;
+    private static final long MAX_LINE_RETRY_NANOS = 60_000_000_000L;
+
+    // Metric names shared with SoftwareMixer
+    static final String METRIC_PLAYS = "audio.plays";
+    static final String METRIC_TRIGGER = "audio.trigger";
+    static final String METRIC_DECODE = "audio.decode";
+    static final String METRIC_DECODE_FAILURES = "audio.failures.decode";
+    static final String METRIC_LINE_UNAVAILABLE = "audio.failures.lineUnavailable";
+    static final String METRIC_PLAY_FAILURES = "audio.failures.play";
+
+    private static SoundBank instance;
+
+    private final int poolSize;
+    private final Map<String, Sound> sounds = new ConcurrentHashMap<>();
+    // Names that failed to decode, so a missing file is reported once rather than on every tap
+    private final Map<String, Boolean> failed = new ConcurrentHashMap<>();
+    // Decoded sounds whose Clips could not be opened yet, with when to try again
+    private final Map<String, Pcm> waitingForLines = new ConcurrentHashMap<>();
+    private final Map<String, LineRetry> lineRetries = new ConcurrentHashMap<>();
+    private final Metrics metrics = Metrics.getInstance();
+
+    public SoundBank(int poolSize) {
+        this.poolSize = Math.max(1, poolSize);
+        metrics.gauge("audio.lines.open", this::openLines);
+        metrics.gauge("audio.pool.busy", this::busyClips);
+        metrics.gauge("audio.pool.size", () -> (long) sounds.size() * this.poolSize);
+    }
+
+    public static synchronized SoundBank getInstance() {
+        if (instance == null) {
+            instance = new SoundBank(Integer.getInteger("birdquiz.sound.pool", DEFAULT_POOL_SIZE));
+        }
+        return instance;
+    }
+
+    /** Decodes and opens every sound in {@link #NAMES}; call from a background thread at startup. */
+    public void preload() {
+        long start = System.nanoTime();
+        for (String name : NAMES) {
+            sound(name);
+        }
+        System.out.println("[SOUND] Preloaded " + sounds.size() + " of " + NAMES.length + " sounds in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms (" + openLines() + " open lines)");
+    }
+
+    public void play(String name) {
+        long start = System.nanoTime();
+        Sound sound = sound(name);
+        if (sound == null) {
+            return;
+        }
+        try {
+            sound.play();
+            metrics.increment(METRIC_PLAYS);
+            metrics.recordSince(METRIC_TRIGGER, start);
+        } catch (RuntimeException e) {
+            metrics.increment(METRIC_PLAY_FAILURES);
+            System.err.println("[SOUND] Cannot play " + name + ": " + e);
+        }
+    }
+
+    /** PCM of a sound, decoded once; null if it cannot be decoded. */
+    public Pcm pcm(String name) {
+        Sound sound = sound(name);
+        return sound != null ? sound.pcm : waitingForLines.get(name);
+    }
+
+    public int openLines() {
+        int open = 0;
+        for (Sound sound : sounds.values()) {
+            open += sound.openClips();
+        }
+        return open;
+    }
+
+    /** Clips currently playing, across all sounds. */
+    public int busyClips() {
+        int busy = 0;
+        for (Sound sound : sounds.values()) {
+            busy += sound.busyClips();
+        }
+        return busy;
+    }
+
+    /** Closes every pooled Clip. */
+    public void close() {
+        for (Sound sound : sounds.values()) {
+            sound.close();
+        }
+        sounds.clear();
+    }
+
+    private Sound sound(String name) {
+        Sound sound = sounds.get(name);
+        if (sound != null || failed.containsKey(name)) {
+            return sound;
+        }
+        LineRetry retry = lineRetries.get(name);
+        if (retry != null && System.nanoTime() < retry.at) {
+            return null;
+        }
+        synchronized (this) {
+            sound = sounds.get(name);
+            if (sound != null || failed.containsKey(name)) {
+                return sound;
+            }
+            Pcm pcm = waitingForLines.get(name);
+            if (pcm == null) {
+                long start = System.nanoTime();
+                try {
+                    pcm = decode(name);
+                    metrics.recordSince(METRIC_DECODE + "." + name, start);
+                } catch (UnsupportedAudioFileException | IOException e) {
+                    failed.put(name, Boolean.TRUE);
+                    metrics.increment(METRIC_DECODE_FAILURES);
+                    System.err.println("[SOUND] Cannot load " + name + ": " + e.getMessage());
+                    return null;
+                }
+            }
+            retry = lineRetries.get(name);
+            if (retry != null && System.nanoTime() < retry.at) {
+                return null;
+            }
+            try {
+                sound = new Sound(pcm, poolSize);
+                sounds.put(name, sound);
+                waitingForLines.remove(name);
+                lineRetries.remove(name);
+            } catch (LineUnavailableException | IllegalArgumentException e) {
+                // The PCM is fine; lines may free up (or a device be plugged in), so try again later
+                // rather than muting the sound
+                metrics.increment(METRIC_LINE_UNAVAILABLE);
+                waitingForLines.put(name, pcm);
+                long delay = retry == null ? FIRST_LINE_RETRY_NANOS : Math.min(MAX_LINE_RETRY_NANOS, retry.delay * 2);
+                lineRetries.put(name, new LineRetry(System.nanoTime() + delay, delay));
+                System.err.println("[SOUND] No line for " + name + ", retrying in " + delay / 1_000_000_000L + " s: "
+                        + e.getMessage());
+            }
+            return sound;
+        }
+    }
+
+    /** Reads the file and converts it to signed PCM, the format every mixer line accepts. */
+    static Pcm decode(String name) throws UnsupportedAudioFileException, IOException {
+        try (InputStream rawIn = ResourceLoader.openOrThrow("/sounds/" + name);
+             BufferedInputStream in = new BufferedInputStream(rawIn);
+             AudioInputStream source = AudioSystem.getAudioInputStream(in)) {
+            AudioFormat format = source.getFormat();
+            AudioInputStream pcmStream = source;
+            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
+                AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                        format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+                pcmStream = AudioSystem.getAudioInputStream(pcm, source);
+            }
+            try (AudioInputStream pcmIn = pcmStream) {
+                return new Pcm(pcmIn.getFormat(), pcmIn.readAllBytes());
+            }
+        }
+    }
+
+    private static class LineRetry {
+        final long at;
+        final long delay;
+
+        LineRetry(long at, long delay) {
+            this.at = at;
+            this.delay = delay;
+        }
+    }
+
+    /** Decoded samples of one sound. */
+    public static class Pcm {
+        private final AudioFormat format;
+        private final byte[] data;
+
+        Pcm(AudioFormat format, byte[] data) {
+            this.format = format;
+            this.data = data;
+        }
+
+        public AudioFormat getFormat() {
+            return format;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+
+    private static class Sound {
+        private final Pcm pcm;
+        private final Clip[] clips;
+        private int next = 0;
+
+        Sound(Pcm pcm, int poolSize) throws LineUnavailableException {
+            this.pcm = pcm;
+            this.clips = new Clip[poolSize];
+            try {
+                for (int i = 0; i < poolSize; i++) {
+                    clips[i] = AudioSystem.getClip();
+                    clips[i].open(pcm.format, pcm.data, 0, pcm.data.length);
+                }
+            } catch (LineUnavailableException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        synchronized void play() {
+            // Prefer an idle Clip; otherwise restart the one that was started longest ago
+            int chosen = -1;
+            for (int i = 0; i < clips.length && chosen < 0; i++) {
+                int index = (next + i) % clips.length;
+                if (!clips[index].isRunning()) chosen = index;
+            }
+            if (chosen < 0) {
+                chosen = next;
+                clips[chosen].stop();
+            }
+            next = (chosen + 1) % clips.length;
+            Clip clip = clips[chosen];
+            clip.setFramePosition(0);
+            clip.start();
+        }
+
+        synchronized int openClips() {
+            int open = 0;
+            for (Clip clip : clips) {
+                if (clip != null && clip.isOpen()) open++;
+            }
+            return open;
+        }
+
+        synchronized int busyClips() {
+            int busy = 0;
+            for (Clip clip : clips) {
+                if (clip != null && clip.isRunning()) busy++;
+            }
+            return busy;
+        }
+
+        synchronized void close() {
+            for (Clip clip : clips) {
+                if (clip != null) clip.close();
+            }
+        }
+    }
+}
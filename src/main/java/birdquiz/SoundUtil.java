@@ -1,26 +1,35 @@
 package birdquiz;
 
-import javax.sound.sampled.*;
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-
+/**
+ * Plays the kiosk's sound effects.
+ *
+ * By default each sound has a few pooled Clips in the {@link SoundBank}. With
+ * -Dbirdquiz.audio=mixer every sound goes through the {@link SoftwareMixer} on a single
+ * line instead, which avoids line acquisition on ALSA and reports trigger latency.
+ */
 public class SoundUtil {
+    private static final boolean USE_MIXER = "mixer".equalsIgnoreCase(System.getProperty("birdquiz.audio"));
 
     public static void playSound(String soundFileName) {
-        try (InputStream rawIn = SoundUtil.class.getResourceAsStream("/sounds/" + soundFileName)) {
-            if (rawIn == null) {
-                throw new IOException("Sound resource not found: /sounds/" + soundFileName);
-            }
-            try (BufferedInputStream in = new BufferedInputStream(rawIn);
-                 AudioInputStream audioStream = AudioSystem.getAudioInputStream(in)) {
+        if (USE_MIXER) {
+            SoftwareMixer.getInstance().play(soundFileName);
+        } else {
+            SoundBank.getInstance().play(soundFileName);
+        }
+    }
 
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioStream);
-                clip.start();
-            }
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            e.printStackTrace();
+    /** Decodes every sound up front; call from a background thread at startup. */
+    public static void preload() {
+        if (USE_MIXER) {
+            SoftwareMixer.getInstance().preload();
+        } else {
+            SoundBank.getInstance().preload();
         }
     }
+
+    public static String stats() {
+        return USE_MIXER ? "mixer " + SoftwareMixer.getInstance().stats()
+                : "clips open lines=" + SoundBank.getInstance().openLines()
+                        + ", trigger " + Metrics.getInstance().histogram(SoundBank.METRIC_TRIGGER);
+    }
 }